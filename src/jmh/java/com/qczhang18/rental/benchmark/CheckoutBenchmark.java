@@ -0,0 +1,51 @@
+package com.qczhang18.rental.benchmark;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.RentalService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing a single request across rental lengths, including every holiday case
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "30", "365", "10000"})
+    private int rentalDays;
+
+    private final RentalService service = new RentalService();
+    private RentalRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // A week of checkout dates around Independence Day for every tool
+        Tool[] tools = Tool.values();
+        requests = new RentalRequest[tools.length * 7];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = RentalRequest.builder()
+                    .tool(tools[i % tools.length])
+                    .checkoutDate(LocalDate.of(2026, 7, 1).plusDays(i / tools.length))
+                    .rentalDay(rentalDays)
+                    .discountPercent(10)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public Agreement checkout() {
+        RentalRequest request = requests[next];
+        next = next + 1 == requests.length ? 0 : next + 1;
+        return service.checkout(request);
+    }
+}
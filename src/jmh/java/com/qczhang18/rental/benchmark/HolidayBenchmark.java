@@ -0,0 +1,37 @@
+package com.qczhang18.rental.benchmark;
+
+import com.qczhang18.rental.util.ChargingDateUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holiday lookups over ten years of consecutive dates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayBenchmark {
+
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dates = new LocalDate[3653];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = LocalDate.of(2020, 1, 1).plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public boolean isHoliday() {
+        LocalDate date = dates[next];
+        next = next + 1 == dates.length ? 0 : next + 1;
+        return ChargingDateUtil.isHoliday(date);
+    }
+}
@@ -0,0 +1,188 @@
+package com.qczhang18.rental.benchmark;
+
+import com.qczhang18.rental.RentalApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load test of {@code POST /rent} in the platform and the virtual thread execution mode.
+ * <p>
+ * For every mode the application is started in this JVM on a random port with the {@code loadtest}
+ * profile, plus the {@code virtual} profile for the virtual mode, and a fresh journal. A fixed number of
+ * clients then send random checkouts back to back, first for the warm-up time and then for the measured
+ * time. Every mode is driven by the same client, so the throughput and latency percentiles printed at the
+ * end compare the server's thread modes only.
+ * <pre>
+ * ./gradlew loadTest -PloadTestClients=400 -PloadTestDuration=30 -PloadTestModes=platform,virtual
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String[] TOOLS = {"CHNS", "LADW", "JAKD", "JAKR"};
+    // Every date a two digit year can name, so random checkouts rarely collide in the inventory
+    private static final LocalDate FIRST_CHECKOUT = LocalDate.of(2000, 1, 1);
+    private static final int CHECKOUT_DAYS = 100 * 365;
+
+    private record Result(String mode, int clients, long requests, double seconds, long[] latencies,
+                          Map<String, Long> outcomes) {
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.clamp(index, 0, latencies.length - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * Latencies and outcomes of one client, only touched by its own thread
+     */
+    private static final class Client {
+
+        private long[] latencies = new long[1 << 12];
+        private int count;
+        private final Map<String, Long> outcomes = new TreeMap<>();
+
+        void record(long nanos, String outcome) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            outcomes.merge(outcome, 1L, Long::sum);
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadTest.clients", 400);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadTest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadTest.duration", 30));
+        String[] modes = System.getProperty("loadTest.modes", "platform,virtual").split(",");
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            results.add(run(mode.trim(), clients, warmup, duration));
+        }
+
+        System.out.printf("%n%-10s %8s %10s %12s %9s %9s %9s %9s%n",
+                "mode", "clients", "requests", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-10s %8d %10d %12.0f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.mode(), result.clients(), result.requests(), result.requests() / result.seconds(),
+                    result.percentileMillis(0.5), result.percentileMillis(0.99), result.percentileMillis(0.999),
+                    result.percentileMillis(1));
+        }
+        for (Result result : results) {
+            System.out.printf("%-10s %s%n", result.mode(), result.outcomes());
+        }
+    }
+
+    private static Result run(String mode, int clients, Duration warmup, Duration duration) throws Exception {
+        String[] profiles = switch (mode) {
+            case "platform" -> new String[]{"loadtest"};
+            case "virtual" -> new String[]{"loadtest", "virtual"};
+            default -> throw new IllegalArgumentException("Unknown mode \"" + mode + "\", use platform or virtual");
+        };
+        Path data = Path.of("build", "loadtest", mode + "-" + System.currentTimeMillis());
+
+        System.out.printf("Starting %s mode%n", mode);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RentalApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0",
+                        "rental.journal.directory=" + data.resolve("journal"),
+                        "rental.audit.directory=" + data.resolve("audit"))
+                .run()) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/rent");
+
+            System.out.printf("Warming up %s mode for %ss with %s clients%n", mode, warmup.toSeconds(), clients);
+            drive(uri, clients, warmup);
+            System.out.printf("Measuring %s mode for %ss%n", mode, duration.toSeconds());
+            long start = System.nanoTime();
+            List<Client> measured = drive(uri, clients, duration);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = measured.stream()
+                    .flatMapToLong(client -> Arrays.stream(client.latencies, 0, client.count))
+                    .sorted()
+                    .toArray();
+            Map<String, Long> outcomes = new TreeMap<>();
+            measured.forEach(client -> client.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum)));
+            return new Result(mode, clients, latencies.length, seconds, latencies, outcomes);
+        }
+    }
+
+    private static List<Client> drive(URI uri, int clients, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Client> results = new ArrayList<>();
+        // Closed in reverse, so the clients have stopped before the HTTP client is
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client();
+                results.add(client);
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(randomCheckout()))
+                                .build();
+                        long start = System.nanoTime();
+                        String outcome;
+                        try {
+                            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                            outcome = outcome(response);
+                        } catch (Exception exception) {
+                            outcome = exception.getClass().getSimpleName();
+                        }
+                        client.record(System.nanoTime() - start, outcome);
+                    }
+                });
+            }
+        }
+        return results;
+    }
+
+    private static String randomCheckout() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkout = FIRST_CHECKOUT.plusDays(random.nextInt(CHECKOUT_DAYS));
+        return String.format("{\"tool\":\"%s\",\"rentalDay\":%d,\"discountPercent\":%d,\"checkoutDate\":\"%d/%d/%02d\"}",
+                TOOLS[random.nextInt(TOOLS.length)], 1 + random.nextInt(14), 5 * random.nextInt(11),
+                checkout.getMonthValue(), checkout.getDayOfMonth(), checkout.getYear() % 100);
+    }
+
+    /**
+     * The status code, and for a 200 the message up to its details, e.g. "200 success"
+     */
+    private static String outcome(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return String.valueOf(response.statusCode());
+        }
+        String body = response.body();
+        int start = body.indexOf("\"message\":\"");
+        if (start < 0) {
+            return "200";
+        }
+        start += "\"message\":\"".length();
+        int end = body.indexOf(" :", start);
+        if (end < 0 || body.indexOf('"', start) < end) {
+            end = body.indexOf('"', start);
+        }
+        return "200 " + body.substring(start, end);
+    }
+}
@@ -0,0 +1,62 @@
+package com.qczhang18.rental.benchmark;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.service.RentalService;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agreement formatting and Jackson round trips of the rental DTOs, as JSON and as CBOR
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final String REQUEST_JSON = """
+            {"tool": "LADW", "rentalDay": 4, "discountPercent": 10, "checkoutDate": "7/2/22"}
+            """;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final ObjectMapper cborMapper = CBORMapper.builder().build();
+    private Agreement agreement;
+    private byte[] responseJson;
+    private byte[] responseCbor;
+
+    @Setup
+    public void setUp() {
+        RentalResponse response = new RentalService().process(objectMapper.readValue(REQUEST_JSON, RentalRequest.class));
+        agreement = response.getAgreement();
+        responseJson = objectMapper.writeValueAsBytes(response);
+        responseCbor = cborMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public String agreementToString() {
+        return agreement.toString();
+    }
+
+    @Benchmark
+    public byte[] requestRoundTrip() {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(REQUEST_JSON, RentalRequest.class));
+    }
+
+    @Benchmark
+    public byte[] responseRoundTrip() {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(responseJson, RentalResponse.class));
+    }
+
+    @Benchmark
+    public byte[] responseRoundTripCbor() {
+        return cborMapper.writeValueAsBytes(cborMapper.readValue(responseCbor, RentalResponse.class));
+    }
+}
@@ -0,0 +1,123 @@
+package com.qczhang18.rental.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the controllers. Every request first takes a token from its client's
+ * {@link RateLimiter} bucket and is refused with 429 when there is none. Requests to the pricing
+ * endpoints, {@code /rent} and {@code /quote} with everything below them, then pass the {@link Bulkhead}
+ * and are refused with 503 when it sheds them. Both carry a {@code Retry-After} header and a message
+ * like the endpoints' own responses. Refusals are counted in {@code rental.admission.rejected}.
+ * <p>
+ * A client is identified by its {@code X-API-Key} header, or by its address without one. The key is
+ * not verified here, a client can only be held to its own bucket if the key is checked in front of
+ * the service; the bulkhead protects the server either way. Actuator endpoints are never limited.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final int MAX_API_KEY_LENGTH = 128;
+
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+    private final ObjectMapper objectMapper;
+    private final Counter rateLimited;
+    private final Counter queueFull;
+    private final Counter timedOut;
+
+    @Autowired
+    public AdmissionFilter(RateLimiter rateLimiter, Bulkhead bulkhead, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.bulkhead = bulkhead;
+        this.objectMapper = objectMapper;
+        this.rateLimited = rejected(registry, "rate_limited");
+        this.queueFull = rejected(registry, "queue_full");
+        this.timedOut = rejected(registry, "timed_out");
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("rental.admission.rejected")
+                .description("Requests refused by admission control")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = rateLimiter.tryAcquire(client(request));
+        if (wait > 0) {
+            rateLimited.increment();
+            refuse(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                    "too many requests, please retry later : Rate limit exceeded ");
+            return;
+        }
+        if (!isPricing(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Bulkhead.Admission admission;
+        try {
+            admission = bulkhead.enter();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            admission = Bulkhead.Admission.TIMED_OUT;
+        }
+        if (admission != Bulkhead.Admission.ADMITTED) {
+            (admission == Bulkhead.Admission.QUEUE_FULL ? queueFull : timedOut).increment();
+            refuse(response, HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "service overloaded, please retry later : Too many requests in progress ");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    private static String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank() && apiKey.length() <= MAX_API_KEY_LENGTH) {
+            return "key:" + apiKey;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static boolean isPricing(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/rent") || path.startsWith("/rent/") || path.equals("/quote") || path.startsWith("/quote/");
+    }
+
+    private void refuse(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+}
@@ -0,0 +1,85 @@
+package com.qczhang18.rental.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many requests are priced at once across all clients. A request beyond the limit waits
+ * in a short queue; when the queue is full, or the request has waited too long, it is refused at once
+ * so the server sheds load instead of letting every request's latency grow.
+ */
+@Component
+public class Bulkhead {
+
+    public enum Admission {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    @Autowired
+    public Bulkhead(@Value("${rental.admission.bulkhead.max-concurrent:0}") int maxConcurrent,
+                    @Value("${rental.admission.bulkhead.max-queued:100}") int maxQueued,
+                    @Value("${rental.admission.bulkhead.max-wait:500ms}") Duration maxWait,
+                    MeterRegistry registry) {
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : 2 * Runtime.getRuntime().availableProcessors();
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(this.maxConcurrent);
+
+        Gauge.builder("rental.admission.bulkhead.active", this, Bulkhead::active)
+                .description("Requests being priced")
+                .register(registry);
+        Gauge.builder("rental.admission.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for the bulkhead")
+                .register(registry);
+    }
+
+    /**
+     * Waits for a permit, unless the queue is full. An admitted caller must {@link #exit()} when done.
+     */
+    public Admission enter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return Admission.ADMITTED;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return Admission.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) ? Admission.ADMITTED : Admission.TIMED_OUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+}
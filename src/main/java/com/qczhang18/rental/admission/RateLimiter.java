@@ -0,0 +1,67 @@
+package com.qczhang18.rental.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TokenBucket} per client, so one client sending too many requests is throttled without
+ * affecting the others. Buckets are created on a client's first request and dropped after the client
+ * has been idle for a while, when its bucket would be full again anyway; the number of clients
+ * tracked at once is bounded.
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final long nanosPerToken;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public RateLimiter(@Value("${rental.admission.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${rental.admission.rate-limit.requests-per-second:50}") double requestsPerSecond,
+                       @Value("${rental.admission.rate-limit.burst:100}") int burst,
+                       @Value("${rental.admission.rate-limit.max-clients:100000}") long maxClients,
+                       MeterRegistry registry) {
+        if (enabled && (requestsPerSecond <= 0 || burst < 1)) {
+            throw new IllegalArgumentException("Rate limit needs positive requests per second and a burst of at least 1");
+        }
+        this.enabled = enabled;
+        this.nanosPerToken = enabled ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond)) : 1;
+        this.burst = burst;
+        // An idle client's bucket refills completely within this time, forgetting it loses nothing
+        Duration refill = Duration.ofNanos(nanosPerToken).multipliedBy(Math.max(1, burst));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxClients))
+                .expireAfterAccess(refill.compareTo(Duration.ofMinutes(1)) > 0 ? refill : Duration.ofMinutes(1))
+                .build();
+        Gauge.builder("rental.admission.clients", buckets, Cache::estimatedSize)
+                .description("Clients with a rate limit bucket")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token from the client's bucket
+     *
+     * @param client the client, an API key or address
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client may send another
+     */
+    public long tryAcquire(String client) {
+        if (!enabled) {
+            return 0;
+        }
+        return buckets.get(client, ignored -> new TokenBucket(nanosPerToken, burst)).tryTake(System.nanoTime());
+    }
+}
@@ -0,0 +1,50 @@
+package com.qczhang18.rental.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to its burst size, updated without locks.
+ * <p>
+ * Instead of a token count and a refill timestamp the bucket keeps a single value, the time at which it
+ * would be full again if no more tokens were taken. Taking a token moves that time one refill interval
+ * into the future and is allowed while it stays less than a burst ahead of now, so a take is one
+ * compare-and-set on an {@link AtomicLong}, however many threads share the bucket.
+ */
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param nanosPerToken time to refill one token
+     * @param burst         tokens the bucket holds when full, the most that can be taken at once
+     */
+    TokenBucket(long nanosPerToken, int burst) {
+        if (nanosPerToken <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and a burst of at least 1");
+        }
+        this.nanosPerToken = nanosPerToken;
+        this.burstNanos = nanosPerToken * burst;
+    }
+
+    /**
+     * Takes a token if there is one
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryTake(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
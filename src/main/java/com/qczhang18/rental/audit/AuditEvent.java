@@ -0,0 +1,35 @@
+package com.qczhang18.rental.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.qczhang18.rental.model.Agreement;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One checked out agreement as written to the audit log, one JSON line per event
+ */
+@Value
+public class AuditEvent {
+
+    Instant timestamp;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long agreementId;
+    String toolCode;
+    int rentalDays;
+    LocalDate checkoutDate;
+    LocalDate dueDate;
+    int chargeDays;
+    int discountPercent;
+    BigDecimal finalCharge;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String holidayCalendar;
+
+    public static AuditEvent of(Agreement agreement, Long agreementId, String holidayCalendar) {
+        return new AuditEvent(Instant.now(), agreementId, agreement.getToolCode(), agreement.getRentalDays(),
+                agreement.getCheckoutDate(), agreement.getDueDate(), agreement.getChargeDays(),
+                agreement.getDiscountPercent(), agreement.getFinalCharge(), holidayCalendar);
+    }
+}
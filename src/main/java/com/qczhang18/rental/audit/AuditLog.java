@@ -0,0 +1,335 @@
+package com.qczhang18.rental.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Audit trail of checkouts, written off the request thread.
+ * <p>
+ * {@link #publish} only puts the event into a bounded {@link RingBuffer}. A single background
+ * writer drains it in batches, appends every event as one JSON line to {@code audit.log} and
+ * flushes once per batch. When the file exceeds the maximum size it is rolled over to
+ * {@code audit-<n>.log}, keeping the newest rolled files. A file that cannot be rolled over keeps
+ * growing until a later batch manages to, and a file that cannot be opened is retried with the next
+ * batch, so a failure never loses more than the batch it hit.
+ * <p>
+ * When the buffer is full the overflow policy decides: {@link Overflow#DROP} counts the event
+ * as dropped and returns at once, {@link Overflow#BLOCK} waits for the writer to make room.
+ * Only that wait takes a lock, publishing into a buffer with room never does.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    public enum Overflow {
+        BLOCK,
+        DROP
+    }
+
+    static final String ACTIVE_FILE = "audit.log";
+    private static final String ROLLED_PREFIX = "audit-";
+    private static final String ROLLED_SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final Overflow overflow;
+    private final ObjectMapper objectMapper;
+
+    private final RingBuffer<AuditEvent> buffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running;
+
+    // Publishers waiting for room when the overflow policy is BLOCK
+    private final AtomicInteger blockedPublishers = new AtomicInteger();
+    private final ReentrantLock roomLock = new ReentrantLock();
+    private final Condition roomAvailable = roomLock.newCondition();
+
+    // Only touched by the writer thread; out is null while the active file could not be opened
+    private OutputStream out;
+    private long fileSize;
+    private long rolledNumber;
+    private boolean rollOverFailed;
+
+    @Autowired
+    public AuditLog(@Value("${rental.audit.enabled:true}") boolean enabled,
+                    @Value("${rental.audit.directory:audit}") String directory,
+                    @Value("${rental.audit.capacity:8192}") int capacity,
+                    @Value("${rental.audit.batch-size:256}") int batchSize,
+                    @Value("${rental.audit.overflow:DROP}") Overflow overflow,
+                    @Value("${rental.audit.max-file-size:64MB}") DataSize maxFileSize,
+                    @Value("${rental.audit.max-files:10}") int maxFiles,
+                    @Value("${rental.audit.flush-interval:100ms}") Duration flushInterval,
+                    ObjectMapper objectMapper, MeterRegistry registry) throws IOException {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxFiles = maxFiles;
+        this.batchSize = Math.max(1, batchSize);
+        this.idleParkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), flushInterval.toNanos());
+        this.overflow = overflow;
+        this.objectMapper = objectMapper;
+        this.buffer = new RingBuffer<>(enabled ? capacity : 2);
+
+        this.written = Counter.builder("rental.audit.written")
+                .description("Audit events written to the audit log")
+                .register(registry);
+        this.dropped = Counter.builder("rental.audit.dropped")
+                .description("Audit events lost because the buffer was full or the log could not be written")
+                .register(registry);
+        Gauge.builder("rental.audit.queue.depth", buffer, RingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(registry);
+        Gauge.builder("rental.audit.queue.capacity", buffer, RingBuffer::capacity)
+                .description("Audit events the buffer holds before the overflow policy applies")
+                .register(registry);
+
+        if (!enabled) {
+            this.writer = null;
+            return;
+        }
+        if (this.maxFileSize < 1024) {
+            throw new IllegalArgumentException("Audit log file size must be at least 1KB");
+        }
+        if (maxFiles < 1) {
+            throw new IllegalArgumentException("At least one rolled audit log file must be kept");
+        }
+
+        Files.createDirectories(this.directory);
+        this.rolledNumber = lastRolledNumber();
+        openActiveFile();
+
+        this.running = true;
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * An audit log that writes nothing, for services created outside of Spring
+     */
+    public static AuditLog disabled() {
+        try {
+            return new AuditLog(false, ".", 2, 1, Overflow.DROP, DataSize.ofBytes(0), 0, Duration.ZERO,
+                    JsonMapper.builder().build(), new CompositeMeterRegistry());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hands an event to the writer without doing any I/O on the calling thread
+     * @param event the event
+     * @return false if the event was dropped
+     */
+    public boolean publish(AuditEvent event) {
+        if (!enabled) {
+            return false;
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (overflow == Overflow.BLOCK && awaitRoom(event)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Waits until the writer has made room for the event, or stopped
+     * @return true if the event was added
+     */
+    private boolean awaitRoom(AuditEvent event) {
+        // Counted before retrying, so a writer that drains after the retry fails is sure to signal
+        blockedPublishers.incrementAndGet();
+        roomLock.lock();
+        try {
+            while (running) {
+                if (buffer.offer(event)) {
+                    return true;
+                }
+                // The writer may be idling between flushes, wake it to make room
+                LockSupport.unpark(writer);
+                roomAvailable.awaitNanos(idleParkNanos);
+            }
+            return false;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            roomLock.unlock();
+            blockedPublishers.decrementAndGet();
+        }
+    }
+
+    public long getWritten() {
+        return (long) written.count();
+    }
+
+    public long getDropped() {
+        return (long) dropped.count();
+    }
+
+    /**
+     * Stops the writer after it has written every event published so far
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        signalRoom();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // Read the flag first, so a final drain sees everything published before close
+            boolean stopping = !running;
+            if (buffer.drainTo(batch, batchSize) > 0) {
+                signalRoom();
+                write(batch);
+                batch.clear();
+            } else if (stopping) {
+                break;
+            } else {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException exception) {
+            log.warn("Failed to close the audit log", exception);
+        }
+    }
+
+    private void signalRoom() {
+        if (blockedPublishers.get() > 0) {
+            roomLock.lock();
+            try {
+                roomAvailable.signalAll();
+            } finally {
+                roomLock.unlock();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        int lines = 0;
+        // A roll over that failed is retried once per batch, not for every line
+        rollOverFailed = false;
+        try {
+            if (out == null) {
+                openActiveFile();
+            }
+            for (AuditEvent event : batch) {
+                byte[] line = objectMapper.writeValueAsBytes(event);
+                if (fileSize > 0 && fileSize + line.length + 1 > maxFileSize && !rollOverFailed) {
+                    rollOver();
+                }
+                out.write(line);
+                out.write('\n');
+                fileSize += line.length + 1;
+                lines++;
+            }
+            out.flush();
+            written.increment(lines);
+        } catch (Exception exception) {
+            // Lines already in the stream buffer may or may not have reached the file
+            dropped.increment(batch.size() - lines);
+            written.increment(lines);
+            log.warn("Failed to write {} audit events", batch.size() - lines, exception);
+        }
+    }
+
+    private void rollOver() throws IOException {
+        try {
+            out.close();
+        } finally {
+            out = null;
+        }
+        try {
+            Files.move(directory.resolve(ACTIVE_FILE), rolledFile(rolledNumber + 1), StandardCopyOption.REPLACE_EXISTING);
+            rolledNumber++;
+        } catch (IOException exception) {
+            rollOverFailed = true;
+            log.warn("Failed to roll over the audit log, appending to it beyond its maximum size", exception);
+        }
+        openActiveFile();
+        try {
+            Files.deleteIfExists(rolledFile(rolledNumber - maxFiles));
+        } catch (IOException exception) {
+            log.warn("Failed to delete an old audit log", exception);
+        }
+    }
+
+    private void openActiveFile() throws IOException {
+        Path file = directory.resolve(ACTIVE_FILE);
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        fileSize = Files.size(file);
+    }
+
+    private Path rolledFile(long number) {
+        return directory.resolve(String.format("%s%010d%s", ROLLED_PREFIX, number, ROLLED_SUFFIX));
+    }
+
+    private long lastRolledNumber() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(ROLLED_PREFIX) && name.endsWith(ROLLED_SUFFIX))
+                    .map(name -> name.substring(ROLLED_PREFIX.length(), name.length() - ROLLED_SUFFIX.length()))
+                    .filter(number -> number.chars().allMatch(Character::isDigit) && !number.isEmpty())
+                    .mapToLong(Long::parseLong)
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.qczhang18.rental.catalog;
+
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.service.QuoteCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the tool catalog from a JSON file and reloads it whenever the file changes.
+ * <pre>
+ * {
+ *   "types": [{"name": "Ladder", "dailyCharge": 1.99, "weekdayCharge": true, "weekendCharge": true, "holidayCharge": false}],
+ *   "tools": [{"code": "LADW", "type": "Ladder", "brand": "Werner"}]
+ * }
+ * </pre>
+ * Every load builds a complete {@link ToolCatalog} before installing it. A file that cannot be read
+ * or is invalid, for example while an editor is still writing it, leaves the current catalog in place.
+ * Without a file the built-in catalog is used.
+ */
+@Slf4j
+@Component
+public class CatalogService {
+
+    /**
+     * One entry of the types list of the catalog file
+     */
+    record TypeEntry(String name, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge,
+                     boolean holidayCharge) {
+    }
+
+    /**
+     * One entry of the tools list of the catalog file
+     */
+    record ToolEntry(String code, String type, String brand) {
+    }
+
+    record CatalogFile(List<TypeEntry> types, List<ToolEntry> tools) {
+    }
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final QuoteCache quoteCache;
+    private final WatchService watchService;
+
+    @Autowired
+    public CatalogService(@Value("${rental.catalog.file:catalog.json}") String file,
+                          @Value("${rental.catalog.watch:true}") boolean watch,
+                          ObjectMapper objectMapper,
+                          QuoteCache quoteCache) throws IOException {
+        this.file = Path.of(file).toAbsolutePath().normalize();
+        this.objectMapper = objectMapper;
+        this.quoteCache = quoteCache;
+
+        reload();
+
+        if (!watch || !Files.isDirectory(this.file.getParent())) {
+            this.watchService = null;
+            return;
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(this::watch, "tool-catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Reads the catalog file and installs it as the current catalog
+     *
+     * @return true if the file was loaded, false if it is missing or invalid
+     */
+    public boolean reload() {
+        if (!Files.isRegularFile(file)) {
+            log.info("No tool catalog at {}, using {} tools", file, ToolCatalog.current().getTools().size());
+            return false;
+        }
+        ToolCatalog catalog;
+        try {
+            catalog = parse(objectMapper.readValue(Files.readAllBytes(file), CatalogFile.class));
+        } catch (IOException | RuntimeException exception) {
+            log.warn("Keeping the current tool catalog, {} could not be loaded: {}", file, exception.getMessage());
+            return false;
+        }
+        ToolCatalog.install(catalog);
+        // Entries priced with the old catalog no longer match the new tools, drop them rather than wait for eviction
+        quoteCache.invalidateAll();
+        log.info("Loaded {} tools of {} types from {}", catalog.getTools().size(), catalog.getTypes().size(), file);
+        return true;
+    }
+
+    static ToolCatalog parse(CatalogFile catalogFile) {
+        if (catalogFile.types() == null || catalogFile.tools() == null) {
+            throw new IllegalArgumentException("Catalog needs both a types and a tools list");
+        }
+        Map<String, Type> types = new HashMap<>();
+        List<Type> typeList = new ArrayList<>();
+        for (TypeEntry entry : catalogFile.types()) {
+            if (entry.name() == null || entry.dailyCharge() == null || entry.dailyCharge().signum() < 0) {
+                throw new IllegalArgumentException("Tool type needs a name and a non-negative daily charge: " + entry);
+            }
+            Type type = new Type(entry.name(), entry.dailyCharge(),
+                    entry.weekdayCharge(), entry.weekendCharge(), entry.holidayCharge());
+            types.put(type.getName(), type);
+            typeList.add(type);
+        }
+        List<Tool> tools = new ArrayList<>();
+        for (ToolEntry entry : catalogFile.tools()) {
+            Type type = types.get(entry.type());
+            if (entry.code() == null || type == null) {
+                throw new IllegalArgumentException("Tool needs a code and one of the listed types: " + entry);
+            }
+            tools.add(new Tool(entry.code(), type, entry.brand()));
+        }
+        return new ToolCatalog(typeList, tools);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    log.warn("Stopped watching {}, its directory is no longer accessible", file);
+                    return;
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException exception) {
+            // Closed on shutdown
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
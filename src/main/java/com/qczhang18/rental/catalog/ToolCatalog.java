@@ -0,0 +1,80 @@
+package com.qczhang18.rental.catalog;
+
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.model.Type;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the rentable tools and their types with constant-time lookup by code.
+ * <p>
+ * The current snapshot is published through a single volatile reference and replaced as a whole
+ * when the catalog file changes, so readers never lock and never see a partly updated catalog.
+ * A request keeps the {@link Tool} it was read with, so a checkout in flight during a reload is
+ * priced entirely with the old snapshot.
+ */
+@Getter
+public final class ToolCatalog {
+
+    /**
+     * The built-in tools, used until a catalog file is loaded
+     */
+    public static final ToolCatalog DEFAULT = new ToolCatalog(
+            List.of(Type.Ladder, Type.Chainsaw, Type.Jackhammer),
+            List.of(Tool.CHNS, Tool.LADW, Tool.JAKD, Tool.JAKR));
+
+    private static volatile ToolCatalog current = DEFAULT;
+
+    private final List<Type> types;
+    private final List<Tool> tools;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Tool> toolsByCode;
+
+    /**
+     * @param types the tool types
+     * @param tools the tools, each of one of the types
+     * @throws IllegalArgumentException if a code or type name is used twice, or a tool has an unlisted type
+     */
+    public ToolCatalog(List<Type> types, List<Tool> tools) {
+        Set<String> typeNames = new HashSet<>();
+        for (Type type : types) {
+            if (!typeNames.add(type.getName())) {
+                throw new IllegalArgumentException("Duplicate tool type \"" + type.getName() + "\"");
+            }
+        }
+        Map<String, Tool> byCode = new HashMap<>();
+        for (Tool tool : tools) {
+            if (!types.contains(tool.getType())) {
+                throw new IllegalArgumentException("Tool \"" + tool.getCode() + "\" has unknown type \"" + tool.getType() + "\"");
+            }
+            if (byCode.putIfAbsent(tool.getCode(), tool) != null) {
+                throw new IllegalArgumentException("Duplicate tool code \"" + tool.getCode() + "\"");
+            }
+        }
+        this.types = List.copyOf(types);
+        this.tools = List.copyOf(tools);
+        this.toolsByCode = Map.copyOf(byCode);
+    }
+
+    public static ToolCatalog current() {
+        return current;
+    }
+
+    /**
+     * Publishes a new snapshot, lookups from then on see only the new catalog
+     */
+    public static void install(ToolCatalog catalog) {
+        current = catalog;
+    }
+
+    public Optional<Tool> find(String code) {
+        return Optional.ofNullable(code == null ? null : toolsByCode.get(code));
+    }
+}
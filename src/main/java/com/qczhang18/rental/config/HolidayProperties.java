@@ -0,0 +1,89 @@
+package com.qczhang18.rental.config;
+
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.HolidayRule;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named holiday calendars declared under {@code rental.holidays}, for example
+ * <pre>
+ * rental.holidays.calendars.US[0].name=Independence Day
+ * rental.holidays.calendars.US[0].type=fixed-date
+ * rental.holidays.calendars.US[0].month=july
+ * rental.holidays.calendars.US[0].day=4
+ * rental.holidays.calendars.US[0].observance=nearest-weekday
+ * </pre>
+ * Without any calendars the built-in US calendar is used.
+ */
+@Data
+@ConfigurationProperties(prefix = "rental.holidays")
+public class HolidayProperties {
+
+    private String defaultCalendar = HolidayCalendars.DEFAULT_NAME;
+    private Map<String, List<Rule>> calendars = new LinkedHashMap<>();
+
+    public enum RuleType {
+        FIXED_DATE,
+        NTH_WEEKDAY,
+        LAST_WEEKDAY,
+        ONE_OFF
+    }
+
+    @Data
+    public static class Rule {
+        private String name;
+        private RuleType type;
+        private Month month;
+        private int day;
+        private DayOfWeek dayOfWeek;
+        private int nth = 1;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate date;
+        private HolidayRule.Observance observance = HolidayRule.Observance.NONE;
+
+        HolidayRule toHolidayRule() {
+            if (name == null || type == null) {
+                throw new IllegalArgumentException("Holiday rule needs a name and a type: " + this);
+            }
+            return switch (type) {
+                case FIXED_DATE -> new HolidayRule.FixedDate(name, MonthDay.of(required(month), day), observance);
+                case NTH_WEEKDAY -> new HolidayRule.NthWeekday(name, required(month), required(dayOfWeek), nth);
+                case LAST_WEEKDAY -> new HolidayRule.LastWeekday(name, required(month), required(dayOfWeek));
+                case ONE_OFF -> new HolidayRule.OneOff(name, required(date));
+            };
+        }
+
+        private <T> T required(T value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Holiday rule \"" + name + "\" of type " + type + " is incomplete");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return the rules of every calendar by name
+     */
+    public Map<String, List<HolidayRule>> toRules() {
+        Map<String, List<HolidayRule>> rules = new LinkedHashMap<>();
+        calendars.forEach((name, calendarRules) -> {
+            List<HolidayRule> holidayRules = new ArrayList<>();
+            for (Rule rule : calendarRules) {
+                holidayRules.add(rule.toHolidayRule());
+            }
+            rules.put(name, holidayRules);
+        });
+        return rules;
+    }
+}
@@ -0,0 +1,42 @@
+package com.qczhang18.rental.config;
+
+import com.qczhang18.rental.util.ChargeDayIndex;
+import com.qczhang18.rental.util.HolidayCalendar;
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.HolidayRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(HolidayProperties.class)
+public class RentalConfiguration {
+
+    /**
+     * Compiles every configured holiday calendar into its own charge day index
+     */
+    @Bean
+    public HolidayCalendars holidayCalendars(
+            HolidayProperties holidayProperties,
+            @Value("${rental.charge-index.start-year:" + ChargeDayIndex.DEFAULT_START_YEAR + "}") int startYear,
+            @Value("${rental.charge-index.end-year:" + ChargeDayIndex.DEFAULT_END_YEAR + "}") int endYear) {
+        Map<String, List<HolidayRule>> rules = holidayProperties.toRules();
+        if (rules.isEmpty()) {
+            rules = Map.of(HolidayCalendars.DEFAULT_NAME, HolidayRule.US);
+        }
+
+        Map<String, ChargeDayIndex> indexes = new HashMap<>();
+        rules.forEach((name, calendarRules) -> {
+            HolidayCalendar calendar = calendarRules.equals(HolidayRule.US)
+                    ? HolidayCalendar.DEFAULT
+                    : new HolidayCalendar(calendarRules, HolidayCalendar.DEFAULT_MIN_YEAR, HolidayCalendar.DEFAULT_MAX_YEAR);
+            indexes.put(name, new ChargeDayIndex(calendar, startYear, endYear));
+        });
+        return new HolidayCalendars(indexes, holidayProperties.getDefaultCalendar());
+    }
+}
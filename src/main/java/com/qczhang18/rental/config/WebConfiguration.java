@@ -0,0 +1,28 @@
+package com.qczhang18.rental.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Content negotiation of the endpoints. JSON stays the default; a client that sends or accepts
+ * {@code application/cbor} gets the same DTOs as CBOR, which carries numbers and decimals in binary
+ * and is read and written by the same serializers as JSON.
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    // Reads requests as leniently as the JSON mapper
+    private final CBORMapper cborMapper = CBORMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        // Takes the CBOR slot after JSON, so a request accepting anything still gets JSON
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper));
+    }
+}
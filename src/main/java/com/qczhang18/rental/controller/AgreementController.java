@@ -0,0 +1,27 @@
+package com.qczhang18.rental.controller;
+
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.model.Agreement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class AgreementController {
+
+    private final AgreementJournal agreementJournal;
+
+    @Autowired
+    public AgreementController(AgreementJournal agreementJournal) {
+        this.agreementJournal = agreementJournal;
+    }
+
+    @GetMapping("/agreements/{id}")
+    public ResponseEntity<Agreement> agreement(@PathVariable("id") long id) {
+        return agreementJournal.find(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
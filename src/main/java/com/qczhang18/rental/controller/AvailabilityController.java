@@ -0,0 +1,44 @@
+package com.qczhang18.rental.controller;
+
+import com.qczhang18.rental.exception.ValidationException;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.model.AvailabilityResponse;
+import com.qczhang18.rental.model.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+public class AvailabilityController {
+
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public AvailabilityController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    /**
+     * Finds the earliest windows between the from and to dates in which a unit of the tool
+     * can be checked out for the given days, at most one per unit
+     */
+    @GetMapping("/availability")
+    public AvailabilityResponse availability(@RequestParam("tool") Tool tool,
+                                             @RequestParam("days") int days,
+                                             @RequestParam("from") @DateTimeFormat(pattern = "M/d/yy") LocalDate from,
+                                             @RequestParam("to") @DateTimeFormat(pattern = "M/d/yy") LocalDate to,
+                                             @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        AvailabilityResponse response = new AvailabilityResponse();
+        try {
+            response.setWindows(inventoryService.findAvailability(tool.getCode(), days, from, to, limit));
+            response.setMessage("success");
+        } catch (ValidationException exception) {
+            response.setMessage("validation error, please check your request : " + exception.getMessage());
+        }
+        return response;
+    }
+}
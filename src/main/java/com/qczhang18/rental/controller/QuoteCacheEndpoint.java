@@ -0,0 +1,42 @@
+package com.qczhang18.rental.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.qczhang18.rental.service.QuoteCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/quotecache}: GET for statistics, DELETE to invalidate every cached quote
+ */
+@Component
+@Endpoint(id = "quotecache")
+public class QuoteCacheEndpoint {
+
+    private final QuoteCache quoteCache;
+
+    @Autowired
+    public QuoteCacheEndpoint(QuoteCache quoteCache) {
+        this.quoteCache = quoteCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = quoteCache.stats();
+        return Map.of(
+                "size", quoteCache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount());
+    }
+
+    @DeleteOperation
+    public void invalidate() {
+        quoteCache.invalidateAll();
+    }
+}
@@ -0,0 +1,125 @@
+package com.qczhang18.rental.controller;
+
+import com.qczhang18.rental.exception.ValidationException;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.service.RentalService;
+import com.qczhang18.rental.util.ChargeDayIndex;
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Cacheable quotes. The same request always gets the same price, so a quote carries a strong
+ * ETag and a public {@code Cache-Control}, and browsers and proxies in front of the service can
+ * keep it. The ETag is derived from the inputs alone, so a revalidation with a matching
+ * {@code If-None-Match} is answered with 304 before anything is priced.
+ */
+@RestController
+public class QuoteController {
+
+    // Part of every ETag, bump it when the quote body changes for the same inputs
+    private static final String ETAG_PREFIX = "q1-";
+
+    private final RentalService rentalService;
+    private final HolidayCalendars holidayCalendars;
+    private final CacheControl cacheControl;
+
+    @Autowired
+    public QuoteController(RentalService rentalService, HolidayCalendars holidayCalendars,
+                           @Value("${rental.quote.max-age:1h}") Duration maxAge) {
+        this.rentalService = rentalService;
+        this.holidayCalendars = holidayCalendars;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    /**
+     * Prices a rental like {@code POST /rent} without checking it out. Successful quotes are
+     * cacheable; validation errors are not, and neither carries an ETag.
+     */
+    @GetMapping(value = "/quote", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RentalResponse> quote(@RequestParam("tool") Tool tool,
+                                                @RequestParam("days") int days,
+                                                @RequestParam(value = "discount", defaultValue = "0") int discount,
+                                                @RequestParam("checkout") @DateTimeFormat(pattern = "M/d/yy") LocalDate checkout,
+                                                @RequestParam(value = "calendar", required = false) String calendar,
+                                                ServletWebRequest webRequest) {
+        RentalRequest rentalRequest = RentalRequest.builder()
+                .tool(tool)
+                .rentalDay(days)
+                .discountPercent(discount)
+                .checkoutDate(checkout)
+                .holidayCalendar(calendar)
+                .build();
+
+        Optional<String> eTag = eTag(rentalRequest);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+            // checkNotModified has set the status and the ETag, a 304 repeats the caching headers of the 200
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            return null;
+        }
+
+        RentalResponse rentalResponse = rentalService.quote(rentalRequest, false);
+        if (eTag.isEmpty() || rentalResponse.getAgreement() == null) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(rentalResponse);
+        }
+        return ResponseEntity.ok().eTag(eTag.get()).cacheControl(cacheControl).body(rentalResponse);
+    }
+
+    /**
+     * Derives the ETag of a quote from everything its price depends on: the request, the tool
+     * with its type and charges as currently in the catalog, and the rules of the holiday calendar.
+     * Editing the catalog or the holidays therefore changes the ETags of the affected quotes only.
+     *
+     * @return the ETag, empty if the request is invalid
+     */
+    Optional<String> eTag(RentalRequest rentalRequest) {
+        try {
+            Validator.validateRequest(rentalRequest);
+        } catch (ValidationException exception) {
+            return Optional.empty();
+        }
+        Optional<ChargeDayIndex> chargeDayIndex = holidayCalendars.find(rentalRequest.getHolidayCalendar());
+        if (rentalRequest.getTool() == null || rentalRequest.getCheckoutDate() == null || chargeDayIndex.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Tool tool = rentalRequest.getTool();
+        Type type = tool.getType();
+        String inputs = String.join("\n",
+                tool.getCode(), tool.getBrand(), type.getName(), type.getDailyCharge().toPlainString(),
+                String.valueOf(type.isWeekdayCharge()), String.valueOf(type.isWeekendCharge()),
+                String.valueOf(type.isHolidayCharge()),
+                String.valueOf(rentalRequest.getRentalDay()), String.valueOf(rentalRequest.getDiscountPercent()),
+                rentalRequest.getCheckoutDate().toString(),
+                holidayCalendars.resolve(rentalRequest.getHolidayCalendar()),
+                chargeDayIndex.get().getCalendar().getVersion());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(inputs.getBytes(StandardCharsets.UTF_8));
+            return Optional.of("\"" + ETAG_PREFIX + HexFormat.of().formatHex(Arrays.copyOf(hash, 16)) + "\"");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -1,42 +1,157 @@
 package com.qczhang18.rental.controller;
 
-import com.qczhang18.rental.exception.ValidationException;
-import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.CartRequest;
+import com.qczhang18.rental.model.CartResponse;
+import com.qczhang18.rental.model.OptimizeRequest;
+import com.qczhang18.rental.model.OptimizeResponse;
 import com.qczhang18.rental.model.RentalRequest;
 import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.service.BatchPricingService;
+import com.qczhang18.rental.service.IdempotencyCache;
 import com.qczhang18.rental.service.RentalService;
-import com.qczhang18.rental.util.Validator;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 public class RentalController {
 
     private final RentalService rentalService;
+    private final BatchPricingService batchPricingService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
+
+    public RentalController(RentalService rentalService, BatchPricingService batchPricingService, ObjectMapper objectMapper) {
+        this(rentalService, batchPricingService, objectMapper, IdempotencyCache.disabled());
+    }
 
     @Autowired
-    public RentalController(RentalService rentalService) {
+    public RentalController(RentalService rentalService, BatchPricingService batchPricingService, ObjectMapper objectMapper,
+                            IdempotencyCache idempotencyCache) {
         this.rentalService = rentalService;
+        this.batchPricingService = batchPricingService;
+        this.objectMapper = objectMapper;
+        this.idempotencyCache = idempotencyCache;
     }
 
+    public RentalResponse rental(RentalRequest rentalRequest) {
+        return rental(rentalRequest, false, null);
+    }
+
+    /**
+     * Checks out a single request. With {@code ?explain=true} the response also carries
+     * the day by day classification behind the charge. A request sent again with the same
+     * {@code Idempotency-Key} header gets the response of the first one and is not checked out twice.
+     */
     @PostMapping("/rent")
-    public RentalResponse rental(@RequestBody RentalRequest rentalRequest) {
+    public RentalResponse rental(@RequestBody RentalRequest rentalRequest,
+                                 @RequestParam(value = "explain", defaultValue = "false") boolean explain,
+                                 @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return rentalService.process(rentalRequest, explain);
+        }
+        return idempotencyCache.process(idempotencyKey, rentalRequest, explain,
+                () -> rentalService.process(rentalRequest, explain));
+    }
 
-        RentalResponse rentalResponse = new RentalResponse();
+    /**
+     * Checks out several tools over the same period, all of them or none
+     */
+    @PostMapping("/rent/cart")
+    public CartResponse cart(@RequestBody CartRequest cartRequest) {
+        return rentalService.checkoutCart(cartRequest);
+    }
+
+    /**
+     * Finds the checkout dates in a window with the lowest final charge for the rental
+     */
+    @PostMapping("/quote/optimize")
+    public OptimizeResponse optimize(@RequestBody OptimizeRequest optimizeRequest) {
+        return rentalService.optimize(optimizeRequest);
+    }
+
+    /**
+     * Quotes a JSON array or NDJSON stream of requests, writing one response per line in input order.
+     * Like {@code /quote}, nothing is reserved, journaled or audited, so a large re-pricing run leaves
+     * the inventory untouched; bookings go through {@code /rent} one at a time or {@code /rent/cart}.
+     * Requests are read in bounded chunks, each priced in parallel by {@link BatchPricingService}, so the
+     * batch is never buffered as a whole. An item that cannot be read as a request gets a validation
+     * error line; malformed JSON ends the stream with a final error line.
+     */
+    @PostMapping(value = "/rent/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void rentalBatch(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        int chunkSize = batchPricingService.getChunkSize();
+        List<JsonNode> chunk = new ArrayList<>(chunkSize);
 
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+                chunk.add(objectMapper.readTree(parser));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(out, chunk);
+                }
+                token = parser.nextToken();
+            }
+            writeChunk(out, chunk);
+        } catch (StreamReadException exception) {
+            writeChunk(out, chunk);
+            writeLine(out, invalidRequest(exception));
+        }
+
+        out.flush();
+    }
+
+    private RentalResponse rentalBatchItem(JsonNode item) {
+        RentalRequest rentalRequest;
         try {
-            Validator.validateRequest(rentalRequest);
-            Agreement agreement = rentalService.checkout(rentalRequest);
-            rentalResponse.setAgreement(agreement);
-            rentalResponse.setMessage("success");
-        } catch (ValidationException exception) {
-            rentalResponse.setMessage("validation error, please check your request : " + exception.getMessage());
-        } catch (Exception exception) {
-            rentalResponse.setMessage("internal server error, please contact support");
+            rentalRequest = objectMapper.treeToValue(item, RentalRequest.class);
+        } catch (JacksonException exception) {
+            return invalidRequest(exception);
         }
+        return rentalService.quote(rentalRequest, false);
+    }
 
+    private RentalResponse invalidRequest(JacksonException exception) {
+        RentalResponse rentalResponse = new RentalResponse();
+        rentalResponse.setMessage("validation error, please check your request : " + exception.getOriginalMessage());
         return rentalResponse;
     }
+
+    private void writeChunk(OutputStream out, List<JsonNode> chunk) throws IOException {
+        for (RentalResponse rentalResponse : batchPricingService.priceAll(chunk, this::rentalBatchItem)) {
+            writeLine(out, rentalResponse);
+        }
+        chunk.clear();
+    }
+
+    private void writeLine(OutputStream out, RentalResponse rentalResponse) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(rentalResponse));
+        out.write('\n');
+    }
 }
@@ -0,0 +1,7 @@
+package com.qczhang18.rental.exception;
+
+public class UnavailableException extends Exception {
+    public UnavailableException(String message) {
+        super(message);
+    }
+}
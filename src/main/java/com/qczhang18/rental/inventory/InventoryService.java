@@ -0,0 +1,289 @@
+package com.qczhang18.rental.inventory;
+
+import com.qczhang18.rental.exception.UnavailableException;
+import com.qczhang18.rental.exception.ValidationException;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.AvailabilityWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracks the physical units of every tool and reserves one for a rental period atomically.
+ * <p>
+ * The tool map is only written when a tool is first seen, and every unit has its own schedule and lock,
+ * so checkouts of different tools never touch shared state and checkouts of the same tool only
+ * contend when they try the same unit. A reservation starts at a random unit, skips units another
+ * thread holds, and only waits for a lock when every free unit was busy.
+ * <p>
+ * Bookings live in memory and are rebuilt from the agreement journal on startup.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    /**
+     * Unit schedules by tool code, null when inventory is not tracked
+     */
+    private final Map<String, UnitSchedule[]> units;
+    private final int defaultUnits;
+
+    @Autowired
+    public InventoryService(@Value("${rental.inventory.units:}") String units,
+                            @Value("${rental.inventory.default-units:10}") int defaultUnits,
+                            AgreementJournal agreementJournal) {
+        this(parseUnits(units), defaultUnits);
+        restore(agreementJournal);
+    }
+
+    /**
+     * @param unitCounts number of physical units by tool code, other tools have none
+     */
+    public InventoryService(Map<String, Integer> unitCounts) {
+        this(unitCounts, 0);
+    }
+
+    /**
+     * @param unitCounts   number of physical units by tool code
+     * @param defaultUnits number of physical units of tools that are not listed, for example
+     *                     ones added to the catalog later
+     */
+    public InventoryService(Map<String, Integer> unitCounts, int defaultUnits) {
+        if (defaultUnits < 0) {
+            throw new IllegalArgumentException("Default unit count is negative: " + defaultUnits);
+        }
+        this.units = new ConcurrentHashMap<>();
+        this.defaultUnits = defaultUnits;
+        unitCounts.forEach((toolCode, count) -> {
+            if (count < 0) {
+                throw new IllegalArgumentException("Unit count of " + toolCode + " is negative: " + count);
+            }
+            units.put(toolCode, newUnits(count));
+        });
+    }
+
+    private InventoryService() {
+        this.units = null;
+        this.defaultUnits = 0;
+    }
+
+    /**
+     * Inventory with unlimited units of every tool, for services created outside of Spring
+     */
+    public static InventoryService unlimited() {
+        return new InventoryService();
+    }
+
+    /**
+     * @param toolCode the tool code
+     * @return the number of physical units of the tool, unbounded when not tracked
+     */
+    public int getUnitCount(String toolCode) {
+        if (units == null) {
+            return Integer.MAX_VALUE;
+        }
+        return toolUnits(toolCode).length;
+    }
+
+    /**
+     * Reserves a unit of the tool for the period
+     *
+     * @param toolCode  the tool code
+     * @param startDate first day of the period
+     * @param endDate   last day of the period
+     * @return the reservation
+     * @throws UnavailableException if every unit is booked for part of the period
+     */
+    public Reservation reserve(String toolCode, LocalDate startDate, LocalDate endDate) throws UnavailableException {
+        if (units == null) {
+            return new Reservation(toolCode, 0, startDate, endDate);
+        }
+        UnitSchedule[] toolUnits = toolUnits(toolCode);
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+
+        int unit = reserve(toolUnits, startDay, endDay);
+        if (unit < 0) {
+            throw new UnavailableException(String.format("No %s is available from %s to %s ",
+                    toolCode, startDate.format(DATE_FORMAT), endDate.format(DATE_FORMAT)));
+        }
+        return new Reservation(toolCode, unit, startDate, endDate);
+    }
+
+    private static int reserve(UnitSchedule[] toolUnits, long startDay, long endDay) {
+        int count = toolUnits.length;
+        if (count == 0) {
+            return -1;
+        }
+        // Spread concurrent checkouts of the same tool over its units
+        int first = ThreadLocalRandom.current().nextInt(count);
+        boolean skipped = false;
+        for (int i = 0; i < count; i++) {
+            int unit = (first + i) % count;
+            UnitSchedule schedule = toolUnits[unit];
+            if (!schedule.isFree(startDay, endDay)) {
+                continue;
+            }
+            if (!schedule.tryLock()) {
+                skipped = true;
+                continue;
+            }
+            try {
+                if (schedule.book(startDay, endDay)) {
+                    return unit;
+                }
+            } finally {
+                schedule.unlock();
+            }
+        }
+        if (!skipped) {
+            return -1;
+        }
+        // Every free unit was being written to, wait for each in turn
+        for (int i = 0; i < count; i++) {
+            int unit = (first + i) % count;
+            UnitSchedule schedule = toolUnits[unit];
+            schedule.lock();
+            try {
+                if (schedule.book(startDay, endDay)) {
+                    return unit;
+                }
+            } finally {
+                schedule.unlock();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases a reservation, for example when the checkout fails after reserving
+     *
+     * @param reservation the reservation
+     */
+    public void release(Reservation reservation) {
+        if (units == null) {
+            return;
+        }
+        UnitSchedule schedule = toolUnits(reservation.getToolCode())[reservation.getUnit()];
+        schedule.lock();
+        try {
+            schedule.release(reservation.getStartDate().toEpochDay(), reservation.getEndDate().toEpochDay());
+        } finally {
+            schedule.unlock();
+        }
+    }
+
+    /**
+     * Finds the earliest window of every unit of the tool in which it can be rented for the given days.
+     * A window covers the checkout date through the due date, like a reservation, and lies between
+     * the from and to dates. Each unit is searched from its bookings around the from date onwards,
+     * so the cost does not depend on how many reservations the tool has outside the range.
+     *
+     * @param toolCode   the tool code
+     * @param rentalDays the rental days
+     * @param fromDate   earliest checkout date
+     * @param toDate     latest due date
+     * @param limit      maximum number of windows
+     * @return at most one window per unit, earliest first
+     * @throws ValidationException if the search is not valid
+     */
+    public List<AvailabilityWindow> findAvailability(String toolCode, int rentalDays, LocalDate fromDate,
+                                                     LocalDate toDate, int limit) throws ValidationException {
+        if (rentalDays < 1) {
+            throw new ValidationException(String.format("Rental day \"%s\" is invalid. Must be greater or equal to 1 ", rentalDays));
+        }
+        if (toDate.isBefore(fromDate.plusDays(rentalDays))) {
+            throw new ValidationException(String.format("Period from %s to %s is shorter than %s rental days ",
+                    fromDate.format(DATE_FORMAT), toDate.format(DATE_FORMAT), rentalDays));
+        }
+        if (limit < 1) {
+            throw new ValidationException(String.format("Limit \"%s\" is invalid. Must be greater or equal to 1 ", limit));
+        }
+        if (units == null) {
+            return List.of(new AvailabilityWindow(0, fromDate, fromDate.plusDays(rentalDays)));
+        }
+
+        UnitSchedule[] toolUnits = toolUnits(toolCode);
+        long fromDay = fromDate.toEpochDay();
+        long toDay = toDate.toEpochDay();
+        // A reservation holds the unit on the checkout date as well as every rental day
+        long span = rentalDays + 1L;
+
+        List<AvailabilityWindow> windows = new ArrayList<>();
+        for (int unit = 0; unit < toolUnits.length; unit++) {
+            long startDay = toolUnits[unit].earliestFree(fromDay, toDay, span);
+            if (startDay >= 0) {
+                LocalDate checkoutDate = LocalDate.ofEpochDay(startDay);
+                windows.add(new AvailabilityWindow(unit, checkoutDate, checkoutDate.plusDays(rentalDays)));
+            }
+        }
+        windows.sort(Comparator.comparing(AvailabilityWindow::getCheckoutDate)
+                .thenComparingInt(AvailabilityWindow::getUnit));
+        return windows.size() > limit ? windows.subList(0, limit) : windows;
+    }
+
+    private void restore(AgreementJournal agreementJournal) {
+        long restored = 0;
+        for (long id = 1; id <= agreementJournal.getLastId(); id++) {
+            Agreement agreement = agreementJournal.find(id).orElse(null);
+            if (agreement == null) {
+                continue;
+            }
+            try {
+                reserve(agreement.getToolCode(), agreement.getCheckoutDate(), agreement.getDueDate());
+                restored++;
+            } catch (UnavailableException exception) {
+                log.warn("Agreement {} overbooks the inventory: {}", id, exception.getMessage());
+            }
+        }
+        if (restored > 0) {
+            log.info("Restored {} reservations from the agreement journal", restored);
+        }
+    }
+
+    private UnitSchedule[] toolUnits(String toolCode) {
+        // Tools without a configured count are added on first use; the map is only written then
+        UnitSchedule[] toolUnits = units.get(toolCode);
+        return toolUnits != null ? toolUnits : units.computeIfAbsent(toolCode, code -> newUnits(defaultUnits));
+    }
+
+    private static UnitSchedule[] newUnits(int count) {
+        UnitSchedule[] toolUnits = new UnitSchedule[count];
+        for (int i = 0; i < count; i++) {
+            toolUnits[i] = new UnitSchedule();
+        }
+        return toolUnits;
+    }
+
+    /**
+     * Parses unit counts like {@code CHNS:4,LADW:8}
+     */
+    private static Map<String, Integer> parseUnits(String units) {
+        Map<String, Integer> unitCounts = new HashMap<>();
+        for (String entry : units.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid rental.inventory.units entry: " + entry);
+            }
+            unitCounts.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return unitCounts;
+    }
+}
@@ -0,0 +1,16 @@
+package com.qczhang18.rental.inventory;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * A physical unit of a tool booked from the start to the end date, both inclusive
+ */
+@Value
+public class Reservation {
+    String toolCode;
+    int unit;
+    LocalDate startDate;
+    LocalDate endDate;
+}
@@ -0,0 +1,78 @@
+package com.qczhang18.rental.inventory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bookings of one physical unit as disjoint epoch-day intervals keyed by their first day.
+ * Reads are lock-free; bookings and releases hold the unit's lock, so writers to different
+ * units never contend.
+ */
+class UnitSchedule {
+
+    private final ConcurrentSkipListMap<Long, Long> bookings = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Checks whether no booking overlaps the period. Without the lock this is only a hint,
+     * a concurrent writer may book the period right after.
+     */
+    boolean isFree(long startDay, long endDay) {
+        // Bookings are disjoint, so only the latest one starting by the end day can overlap
+        Map.Entry<Long, Long> booking = bookings.floorEntry(endDay);
+        return booking == null || booking.getValue() < startDay;
+    }
+
+    boolean tryLock() {
+        return lock.tryLock();
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Books the period if it is still free, the caller must hold the lock
+     */
+    boolean book(long startDay, long endDay) {
+        if (!isFree(startDay, endDay)) {
+            return false;
+        }
+        bookings.put(startDay, endDay);
+        return true;
+    }
+
+    /**
+     * Removes the booking of exactly this period, the caller must hold the lock
+     */
+    boolean release(long startDay, long endDay) {
+        return bookings.remove(startDay, endDay);
+    }
+
+    /**
+     * Finds the first day from which the unit is free for the given number of consecutive days,
+     * ending no later than the last day. Only bookings between the two days are visited, so the
+     * cost is logarithmic in the number of bookings plus the gaps too short to fit.
+     *
+     * @return the first free day, or -1 when no gap in the range is long enough
+     */
+    long earliestFree(long fromDay, long toDay, long span) {
+        long candidate = fromDay;
+        Map.Entry<Long, Long> covering = bookings.floorEntry(candidate);
+        if (covering != null && covering.getValue() >= candidate) {
+            candidate = covering.getValue() + 1;
+        }
+        for (Map.Entry<Long, Long> booking : bookings.tailMap(candidate).entrySet()) {
+            if (candidate + span - 1 > toDay || booking.getKey() - candidate >= span) {
+                break;
+            }
+            candidate = booking.getValue() + 1;
+        }
+        return candidate + span - 1 <= toDay ? candidate : -1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.qczhang18.rental.journal;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.util.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Compact binary form of an {@link Agreement} in the journal, starting with a format version.
+ * Strings are length-prefixed UTF-8, dates are long epoch days and amounts are long cents.
+ */
+final class AgreementCodec {
+
+    // Version 2 widened the dates to longs, a long rental's due date does not fit an int of epoch days
+    private static final byte VERSION = 2;
+    private static final int FIXED_LENGTH = Byte.BYTES + 3 * Short.BYTES + 3 * Integer.BYTES + 6 * Long.BYTES;
+
+    private AgreementCodec() {
+    }
+
+    static byte[] encode(Agreement agreement) {
+        byte[] toolCode = utf8(agreement.getToolCode());
+        byte[] toolType = utf8(agreement.getToolType());
+        byte[] toolBrand = utf8(agreement.getToolBrand());
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_LENGTH + toolCode.length + toolType.length + toolBrand.length);
+        buffer.put(VERSION);
+        putString(buffer, toolCode);
+        putString(buffer, toolType);
+        putString(buffer, toolBrand);
+        buffer.putInt(agreement.getRentalDays());
+        buffer.putLong(agreement.getCheckoutDate().toEpochDay());
+        buffer.putLong(agreement.getDueDate().toEpochDay());
+        buffer.putLong(Money.toCents(agreement.getDailyRentalCharge()));
+        buffer.putInt(agreement.getChargeDays());
+        buffer.putLong(Money.toCents(agreement.getPreDiscountCharge()));
+        buffer.putInt(agreement.getDiscountPercent());
+        buffer.putLong(Money.toCents(agreement.getDiscountAmount()));
+        buffer.putLong(Money.toCents(agreement.getFinalCharge()));
+        return buffer.array();
+    }
+
+    static Agreement decode(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Journal record version " + version + " is not supported, expected " + VERSION);
+        }
+        return Agreement.builder()
+                .toolCode(getString(buffer))
+                .toolType(getString(buffer))
+                .toolBrand(getString(buffer))
+                .rentalDays(buffer.getInt())
+                .checkoutDate(LocalDate.ofEpochDay(buffer.getLong()))
+                .dueDate(LocalDate.ofEpochDay(buffer.getLong()))
+                .dailyRentalCharge(Money.toBigDecimal(buffer.getLong()))
+                .chargeDays(buffer.getInt())
+                .preDiscountCharge(Money.toBigDecimal(buffer.getLong()))
+                .discountPercent(buffer.getInt())
+                .discountAmount(Money.toBigDecimal(buffer.getLong()))
+                .finalCharge(Money.toBigDecimal(buffer.getLong()))
+                .build();
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long for the journal");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
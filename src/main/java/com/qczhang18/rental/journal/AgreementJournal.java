@@ -0,0 +1,387 @@
+package com.qczhang18.rental.journal;
+
+import com.qczhang18.rental.model.Agreement;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of checked out agreements on memory-mapped, fixed size segment files.
+ * <p>
+ * Each agreement gets the next id and is appended as one record:
+ * <pre>
+ * int  length  whole record, header included
+ * int  crc     CRC32 of id, count and body
+ * long id
+ * int  count   records appended together, on the first of them; 0 on the others
+ * body         see {@link AgreementCodec}
+ * </pre>
+ * A zero length marks the end of the written part of a segment. Agreements appended together,
+ * such as the items of a cart, go into one segment and only count once all of their records are
+ * valid, so a cart is never recovered in part. Each segment is named after the first id in it.
+ * <p>
+ * Lookups by id go through an in-memory index of record positions that is rebuilt by scanning the
+ * segments on startup. A torn record at the tail of the last segment is detected by its checksum
+ * and overwritten by the next append. A damaged record in an earlier segment loses the rest of that
+ * segment only; scanning carries on with the next one, whose name tells where its ids start.
+ * <p>
+ * Appends only write to the mapping. Segments are forced to disk by a background task every
+ * flush interval (group commit), and when a segment fills up.
+ */
+@Slf4j
+@Component
+public class AgreementJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int CRC_OFFSET = Integer.BYTES;
+    private static final int ID_OFFSET = CRC_OFFSET + Integer.BYTES;
+    private static final int COUNT_OFFSET = ID_OFFSET + Long.BYTES;
+    // Position of an id that was lost in a damaged segment
+    private static final long MISSING = -1;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile MappedByteBuffer activeSegment;
+    private int writeOffset;
+
+    // Position of the record with id n at positions[n - 1]: segment number in the high int, offset in the low int
+    private volatile long[] positions = new long[1024];
+    private volatile long lastId;
+    private volatile long flushedId;
+
+    @Autowired
+    public AgreementJournal(@Value("${rental.journal.enabled:true}") boolean enabled,
+                            @Value("${rental.journal.directory:journal}") String directory,
+                            @Value("${rental.journal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${rental.journal.flush-interval:200ms}") Duration flushInterval) throws IOException {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        if (!enabled) {
+            this.flusher = null;
+            return;
+        }
+        if (this.segmentSize < 1024) {
+            throw new IllegalArgumentException("Journal segment size must be at least 1KB");
+        }
+
+        Files.createDirectories(this.directory);
+        recover();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "agreement-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A journal that records nothing, for services created outside of Spring
+     */
+    public static AgreementJournal disabled() {
+        try {
+            return new AgreementJournal(false, ".", DataSize.ofBytes(0), Duration.ZERO);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Appends an agreement to the journal
+     * @param agreement the agreement
+     * @return the id assigned to it
+     * @throws IOException if a new segment cannot be created
+     */
+    public long append(Agreement agreement) throws IOException {
+        return appendAll(List.of(agreement)).get(0);
+    }
+
+    /**
+     * Appends agreements to the journal all together: after a failure or a crash either every one
+     * of them is recovered or none is
+     * @param agreements the agreements
+     * @return the ids assigned to them, consecutive and in order
+     * @throws IOException if a new segment cannot be created
+     */
+    public List<Long> appendAll(List<Agreement> agreements) throws IOException {
+        if (!enabled) {
+            throw new IllegalStateException("Agreement journal is disabled");
+        }
+        if (agreements.isEmpty()) {
+            return List.of();
+        }
+        byte[][] bodies = new byte[agreements.size()][];
+        int totalLength = 0;
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = AgreementCodec.encode(agreements.get(i));
+            totalLength += HEADER_LENGTH + bodies[i].length;
+        }
+        if (totalLength + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException(bodies.length + " records of " + totalLength + " bytes do not fit a journal segment");
+        }
+
+        writeLock.lock();
+        try {
+            long firstId = lastId + 1;
+            if (activeSegment == null || writeOffset + totalLength + Integer.BYTES > activeSegment.capacity()) {
+                rollSegment(firstId);
+            }
+
+            MappedByteBuffer segment = activeSegment;
+            int segmentNumber = segments.size() - 1;
+            int firstOffset = writeOffset;
+            int offset = firstOffset;
+            List<Long> ids = new ArrayList<>(bodies.length);
+            for (int i = 0; i < bodies.length; i++) {
+                long id = firstId + i;
+                int count = i == 0 ? bodies.length : 0;
+                segment.putInt(offset + CRC_OFFSET, checksum(id, count, bodies[i]));
+                segment.putLong(offset + ID_OFFSET, id);
+                segment.putInt(offset + COUNT_OFFSET, count);
+                segment.put(offset + HEADER_LENGTH, bodies[i]);
+                if (i > 0) {
+                    segment.putInt(offset, HEADER_LENGTH + bodies[i].length);
+                }
+                index(id, segmentNumber, offset);
+                ids.add(id);
+                offset += HEADER_LENGTH + bodies[i].length;
+            }
+            // Terminate the log after these records, then commit them by writing the length of the first
+            segment.putInt(offset, 0);
+            segment.putInt(firstOffset, HEADER_LENGTH + bodies[0].length);
+
+            writeOffset = offset;
+            lastId = firstId + bodies.length - 1;
+            return ids;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Looks up an agreement by id
+     * @param id the id assigned on append
+     * @return the agreement, empty if no agreement has that id
+     */
+    public Optional<Agreement> find(long id) {
+        if (id < 1 || id > lastId) {
+            return Optional.empty();
+        }
+        long position = positions[(int) (id - 1)];
+        if (position == MISSING) {
+            return Optional.empty();
+        }
+        MappedByteBuffer segment = segments.get((int) (position >>> 32));
+        int offset = (int) position;
+
+        byte[] body = new byte[segment.getInt(offset) - HEADER_LENGTH];
+        segment.get(offset + HEADER_LENGTH, body);
+        return Optional.of(AgreementCodec.decode(body));
+    }
+
+    /**
+     * Forces everything appended so far to disk
+     */
+    public void flush() {
+        long target = lastId;
+        if (target == flushedId) {
+            return;
+        }
+        // Earlier segments were forced when the log rolled over
+        activeSegment.force();
+        flushedId = target;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    private void rollSegment(long firstId) throws IOException {
+        // Recovery resumes the ids after the last segment on disk, so only an empty last segment, one
+        // recovered from before the segment size grew, already has this name; it is mapped again at full size
+        boolean reuse = activeSegment != null && writeOffset == 0;
+        if (activeSegment != null) {
+            activeSegment.force();
+        }
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstId, SEGMENT_SUFFIX));
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(file, reuse ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        if (reuse) {
+            segments.set(segments.size() - 1, segment);
+        } else {
+            segments.add(segment);
+        }
+        activeSegment = segment;
+        writeOffset = 0;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long firstId = firstId(file);
+            if (firstId <= lastId) {
+                throw new IllegalStateException("Journal segment " + file + " starts at agreement " + firstId
+                        + ", which the segment before it already holds");
+            }
+            if (firstId > lastId + 1) {
+                log.error("Agreements {} to {} are lost, the journal segment holding them is damaged", lastId + 1, firstId - 1);
+                skip(firstId - 1);
+            }
+
+            MappedByteBuffer segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            segments.add(segment);
+            activeSegment = segment;
+            // Only the last segment is appended to, so only its torn tail is overwritten
+            writeOffset = scan(segment, segments.size() - 1, i == files.size() - 1);
+        }
+        flushedId = lastId;
+
+        if (!files.isEmpty()) {
+            log.info("Recovered {} agreements from {} journal segments in {}", lastId, files.size(), directory);
+        }
+    }
+
+    /**
+     * Indexes the valid records of a segment, the records appended together with one all or none
+     * @return the offset after the last valid record
+     */
+    private int scan(MappedByteBuffer segment, int segmentNumber, boolean last) {
+        int offset = 0;
+        while (offset + Integer.BYTES <= segment.capacity() && segment.getInt(offset) != 0) {
+            int count = validRecord(segment, offset, lastId + 1) ? segment.getInt(offset + COUNT_OFFSET) : 0;
+            int end = offset;
+            for (int i = 0; i < count && end >= 0; i++) {
+                if (i > 0 && (!validRecord(segment, end, lastId + 1 + i) || segment.getInt(end + COUNT_OFFSET) != 0)) {
+                    end = -1;
+                } else {
+                    end += segment.getInt(end);
+                }
+            }
+            if (count < 1 || end < 0) {
+                if (last) {
+                    log.warn("Journal segment {} ends with an invalid record at offset {}", segmentNumber, offset);
+                } else {
+                    log.error("Journal segment {} is damaged at offset {}, the agreements after it are lost", segmentNumber, offset);
+                }
+                break;
+            }
+            for (; offset < end; offset += segment.getInt(offset)) {
+                long id = lastId + 1;
+                index(id, segmentNumber, offset);
+                lastId = id;
+            }
+        }
+        return offset;
+    }
+
+    private boolean validRecord(MappedByteBuffer segment, int offset, long id) {
+        if (offset + HEADER_LENGTH > segment.capacity()) {
+            return false;
+        }
+        int recordLength = segment.getInt(offset);
+        if (recordLength < HEADER_LENGTH || offset + recordLength > segment.capacity()
+                || segment.getLong(offset + ID_OFFSET) != id) {
+            return false;
+        }
+        byte[] body = new byte[recordLength - HEADER_LENGTH];
+        segment.get(offset + HEADER_LENGTH, body);
+        return segment.getInt(offset + CRC_OFFSET) == checksum(id, segment.getInt(offset + COUNT_OFFSET), body);
+    }
+
+    /**
+     * Marks the ids up to the given one as lost
+     */
+    private void skip(long id) {
+        for (long missing = lastId + 1; missing <= id; missing++) {
+            index(missing, 0, 0);
+            positions[Math.toIntExact(missing - 1)] = MISSING;
+        }
+        lastId = id;
+    }
+
+    private void index(long id, int segmentNumber, int offset) {
+        long[] current = positions;
+        int slot = Math.toIntExact(id - 1);
+        if (slot == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            positions = current;
+        }
+        current[slot] = ((long) segmentNumber << 32) | offset;
+    }
+
+    private static long firstId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(long id, int count, byte[] body) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (id >>> shift));
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(count >>> shift);
+        }
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.Agreement;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+
+import static com.qczhang18.rental.json.JsonFields.readDate;
+import static com.qczhang18.rental.json.JsonFields.readDecimal;
+import static com.qczhang18.rental.json.JsonFields.readString;
+
+/**
+ * Reads an {@link Agreement} with {@code MM/dd/yy} dates
+ */
+public class AgreementDeserializer extends PropertyDeserializer<Agreement, Agreement.AgreementBuilder> {
+
+    static final AgreementDeserializer INSTANCE = new AgreementDeserializer();
+
+    public AgreementDeserializer() {
+        super(Agreement.class);
+    }
+
+    @Override
+    protected Agreement.AgreementBuilder create() {
+        return Agreement.builder();
+    }
+
+    @Override
+    protected Agreement build(Agreement.AgreementBuilder agreement) {
+        return agreement.build();
+    }
+
+    @Override
+    protected boolean readProperty(Agreement.AgreementBuilder agreement, String name, JsonParser p, DeserializationContext ctxt) {
+        switch (name) {
+            case "toolCode" -> agreement.toolCode(readString(p, ctxt));
+            case "toolType" -> agreement.toolType(readString(p, ctxt));
+            case "toolBrand" -> agreement.toolBrand(readString(p, ctxt));
+            case "rentalDays" -> agreement.rentalDays(readInt(p, ctxt));
+            case "checkoutDate" -> agreement.checkoutDate(readDate(p, ctxt, true));
+            case "dueDate" -> agreement.dueDate(readDate(p, ctxt, true));
+            case "dailyRentalCharge" -> agreement.dailyRentalCharge(readDecimal(p, ctxt));
+            case "chargeDays" -> agreement.chargeDays(readInt(p, ctxt));
+            case "preDiscountCharge" -> agreement.preDiscountCharge(readDecimal(p, ctxt));
+            case "discountPercent" -> agreement.discountPercent(readInt(p, ctxt));
+            case "discountAmount" -> agreement.discountAmount(readDecimal(p, ctxt));
+            case "finalCharge" -> agreement.finalCharge(readDecimal(p, ctxt));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.Agreement;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+import static com.qczhang18.rental.json.JsonFields.writeDate;
+import static com.qczhang18.rental.json.JsonFields.writeDecimal;
+import static com.qczhang18.rental.json.JsonFields.writeString;
+
+/**
+ * Writes an {@link Agreement} with its properties in alphabetical order and {@code MM/dd/yy} dates,
+ * the same JSON bean serialization produces
+ */
+public class AgreementSerializer extends StdSerializer<Agreement> {
+
+    static final AgreementSerializer INSTANCE = new AgreementSerializer();
+
+    public AgreementSerializer() {
+        super(Agreement.class);
+    }
+
+    @Override
+    public void serialize(Agreement agreement, JsonGenerator gen, SerializationContext ctxt) {
+        gen.writeStartObject(agreement);
+        gen.writeNumberProperty("chargeDays", agreement.getChargeDays());
+        writeDate(gen, "checkoutDate", agreement.getCheckoutDate());
+        writeDecimal(gen, "dailyRentalCharge", agreement.getDailyRentalCharge());
+        writeDecimal(gen, "discountAmount", agreement.getDiscountAmount());
+        gen.writeNumberProperty("discountPercent", agreement.getDiscountPercent());
+        writeDate(gen, "dueDate", agreement.getDueDate());
+        writeDecimal(gen, "finalCharge", agreement.getFinalCharge());
+        writeDecimal(gen, "preDiscountCharge", agreement.getPreDiscountCharge());
+        gen.writeNumberProperty("rentalDays", agreement.getRentalDays());
+        writeString(gen, "toolBrand", agreement.getToolBrand());
+        writeString(gen, "toolCode", agreement.getToolCode());
+        writeString(gen, "toolType", agreement.getToolType());
+        gen.writeEndObject();
+    }
+}
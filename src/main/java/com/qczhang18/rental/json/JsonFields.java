@@ -0,0 +1,110 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.Tool;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads and writes the field types the rental DTOs share. The common token of each type is
+ * handled directly; anything else is handed to the context, so coercions stay as Jackson does them.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    static void writeDate(JsonGenerator gen, String name, LocalDate date) {
+        if (date == null) {
+            gen.writeNullProperty(name);
+        } else {
+            gen.writeStringProperty(name, ShortDateCodec.format(date));
+        }
+    }
+
+    static void writeString(JsonGenerator gen, String name, String value) {
+        if (value == null) {
+            gen.writeNullProperty(name);
+        } else {
+            gen.writeStringProperty(name, value);
+        }
+    }
+
+    static void writeDecimal(JsonGenerator gen, String name, BigDecimal value) {
+        if (value == null) {
+            gen.writeNullProperty(name);
+        } else {
+            gen.writeNumberProperty(name, value);
+        }
+    }
+
+    /**
+     * Reads an {@code M/d/yy} date, or {@code MM/dd/yy} when padded; blank text is null
+     */
+    static LocalDate readDate(JsonParser p, DeserializationContext ctxt, boolean padded) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return ctxt.readValue(p, LocalDate.class);
+        }
+        String text = p.getValueAsString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return padded ? ShortDateCodec.parsePadded(text) : ShortDateCodec.parse(text);
+        } catch (DateTimeParseException exception) {
+            throw ctxt.weirdStringException(text, LocalDate.class, exception.getMessage());
+        }
+    }
+
+    static String readString(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getValueAsString();
+        }
+        return token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class);
+    }
+
+    static BigDecimal readDecimal(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getDecimalValue();
+        }
+        return token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, BigDecimal.class);
+    }
+
+    static Long readLong(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return p.getLongValue();
+        }
+        return token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Long.class);
+    }
+
+    /**
+     * Reads a tool code and looks it up in the current catalog
+     */
+    static Tool readTool(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return ctxt.readValue(p, Tool.class);
+        }
+        String code = p.getValueAsString();
+        try {
+            return Tool.of(code);
+        } catch (IllegalArgumentException exception) {
+            throw ctxt.weirdStringException(code, Tool.class, exception.getMessage());
+        }
+    }
+}
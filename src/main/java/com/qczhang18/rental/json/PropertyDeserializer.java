@@ -0,0 +1,67 @@
+package com.qczhang18.rental.json;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads a JSON object into a mutable value or a builder one property at a time, without bean introspection.
+ * Unknown properties are handed to the context, which skips them or fails as configured.
+ *
+ * @param <T> the value type
+ * @param <B> what the properties are read into, the value itself when it is mutable
+ */
+abstract class PropertyDeserializer<T, B> extends StdDeserializer<T> {
+
+    protected PropertyDeserializer(Class<T> type) {
+        super(type);
+    }
+
+    /**
+     * @return an empty value or builder to read the properties into
+     */
+    protected abstract B create();
+
+    /**
+     * Reads the value of a property, the parser is on its first token
+     * @return false if the property is unknown
+     */
+    protected abstract boolean readProperty(B value, String name, JsonParser p, DeserializationContext ctxt);
+
+    /**
+     * @return the value once every property has been read
+     */
+    protected abstract T build(B value);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.PROPERTY_NAME && token != JsonToken.END_OBJECT) {
+            return (T) ctxt.handleUnexpectedToken(handledType(), p);
+        }
+
+        B value = create();
+        for (; token == JsonToken.PROPERTY_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            if (!readProperty(value, name, p, ctxt)) {
+                ctxt.handleUnknownProperty(p, this, value, name);
+            }
+        }
+        return build(value);
+    }
+
+    /**
+     * Reads an int the way Jackson reads a primitive property, a number token directly
+     */
+    protected int readInt(JsonParser p, DeserializationContext ctxt) {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return p.getIntValue();
+        }
+        return _parseIntPrimitive(p, ctxt);
+    }
+}
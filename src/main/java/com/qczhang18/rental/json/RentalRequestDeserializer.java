@@ -0,0 +1,44 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.RentalRequest;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+
+import static com.qczhang18.rental.json.JsonFields.readDate;
+import static com.qczhang18.rental.json.JsonFields.readString;
+import static com.qczhang18.rental.json.JsonFields.readTool;
+
+/**
+ * Reads a {@link RentalRequest} with an {@code M/d/yy} checkout date, the tool by its catalog code
+ */
+public class RentalRequestDeserializer extends PropertyDeserializer<RentalRequest, RentalRequest> {
+
+    public RentalRequestDeserializer() {
+        super(RentalRequest.class);
+    }
+
+    @Override
+    protected RentalRequest create() {
+        return new RentalRequest();
+    }
+
+    @Override
+    protected RentalRequest build(RentalRequest rentalRequest) {
+        return rentalRequest;
+    }
+
+    @Override
+    protected boolean readProperty(RentalRequest rentalRequest, String name, JsonParser p, DeserializationContext ctxt) {
+        switch (name) {
+            case "tool" -> rentalRequest.setTool(readTool(p, ctxt));
+            case "rentalDay" -> rentalRequest.setRentalDay(readInt(p, ctxt));
+            case "discountPercent" -> rentalRequest.setDiscountPercent(readInt(p, ctxt));
+            case "checkoutDate" -> rentalRequest.setCheckoutDate(readDate(p, ctxt, false));
+            case "holidayCalendar" -> rentalRequest.setHolidayCalendar(readString(p, ctxt));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.RentalRequest;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a {@link RentalRequest} with its properties in alphabetical order and an {@code M/d/yy}
+ * checkout date, the same JSON bean serialization produces
+ */
+public class RentalRequestSerializer extends StdSerializer<RentalRequest> {
+
+    public RentalRequestSerializer() {
+        super(RentalRequest.class);
+    }
+
+    @Override
+    public void serialize(RentalRequest rentalRequest, JsonGenerator gen, SerializationContext ctxt) {
+        gen.writeStartObject(rentalRequest);
+        if (rentalRequest.getCheckoutDate() == null) {
+            gen.writeNullProperty("checkoutDate");
+        } else {
+            gen.writeStringProperty("checkoutDate", ShortDateCodec.formatUnpadded(rentalRequest.getCheckoutDate()));
+        }
+        gen.writeNumberProperty("discountPercent", rentalRequest.getDiscountPercent());
+        if (rentalRequest.getHolidayCalendar() != null) {
+            gen.writeStringProperty("holidayCalendar", rentalRequest.getHolidayCalendar());
+        }
+        gen.writeNumberProperty("rentalDay", rentalRequest.getRentalDay());
+        JsonFields.writeString(gen, "tool", rentalRequest.getTool() == null ? null : rentalRequest.getTool().getCode());
+        gen.writeEndObject();
+    }
+}
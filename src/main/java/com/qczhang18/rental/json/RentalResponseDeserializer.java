@@ -0,0 +1,50 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.ChargeDay;
+import com.qczhang18.rental.model.RentalResponse;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+
+import java.util.List;
+
+import static com.qczhang18.rental.json.JsonFields.readLong;
+import static com.qczhang18.rental.json.JsonFields.readString;
+
+/**
+ * Reads a {@link RentalResponse}, for clients of the rental endpoints
+ */
+public class RentalResponseDeserializer extends PropertyDeserializer<RentalResponse, RentalResponse> {
+
+    public RentalResponseDeserializer() {
+        super(RentalResponse.class);
+    }
+
+    @Override
+    protected RentalResponse create() {
+        return new RentalResponse();
+    }
+
+    @Override
+    protected RentalResponse build(RentalResponse rentalResponse) {
+        return rentalResponse;
+    }
+
+    @Override
+    protected boolean readProperty(RentalResponse rentalResponse, String name, JsonParser p, DeserializationContext ctxt) {
+        switch (name) {
+            case "message" -> rentalResponse.setMessage(readString(p, ctxt));
+            case "agreement" -> rentalResponse.setAgreement(p.currentToken() == JsonToken.VALUE_NULL
+                    ? null
+                    : AgreementDeserializer.INSTANCE.deserialize(p, ctxt));
+            case "agreementId" -> rentalResponse.setAgreementId(readLong(p, ctxt));
+            case "trace" -> rentalResponse.setTrace(p.currentToken() == JsonToken.VALUE_NULL
+                    ? null
+                    : ctxt.<List<ChargeDay>>readValue(p, ctxt.getTypeFactory().constructCollectionType(List.class, ChargeDay.class)));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.qczhang18.rental.json;
+
+import com.qczhang18.rental.model.RentalResponse;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a {@link RentalResponse} with its properties in alphabetical order, leaving out an absent
+ * agreement id and trace, the same JSON bean serialization produces
+ */
+public class RentalResponseSerializer extends StdSerializer<RentalResponse> {
+
+    public RentalResponseSerializer() {
+        super(RentalResponse.class);
+    }
+
+    @Override
+    public void serialize(RentalResponse rentalResponse, JsonGenerator gen, SerializationContext ctxt) {
+        gen.writeStartObject(rentalResponse);
+        gen.writeName("agreement");
+        if (rentalResponse.getAgreement() == null) {
+            gen.writeNull();
+        } else {
+            AgreementSerializer.INSTANCE.serialize(rentalResponse.getAgreement(), gen, ctxt);
+        }
+        if (rentalResponse.getAgreementId() != null) {
+            gen.writeNumberProperty("agreementId", rentalResponse.getAgreementId().longValue());
+        }
+        JsonFields.writeString(gen, "message", rentalResponse.getMessage());
+        if (rentalResponse.getTrace() != null) {
+            // Only built on request, left to the bean serializer
+            gen.writeName("trace");
+            ctxt.writeValue(gen, rentalResponse.getTrace());
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,165 @@
+package com.qczhang18.rental.json;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads and writes {@code M/d/yy} and {@code MM/dd/yy} dates without a {@code DateTimeFormatter}.
+ * <p>
+ * Parsing accepts exactly what {@code DateTimeFormatter.ofPattern("M/d/yy")} accepts: one or more
+ * digits for month and day, two for the year (2000 to 2099), and a day past the end of the month
+ * is moved back to its last day, as the default smart resolver does. {@link #parsePadded} requires
+ * two digits for month and day like {@code MM/dd/yy}.
+ * <p>
+ * Formatted dates are kept in a small direct-mapped cache by epoch day, since responses
+ * repeat the same few checkout and due dates.
+ */
+public final class ShortDateCodec {
+
+    private static final int CACHE_SIZE = 1024;
+    // Digits DateTimeFormatter reads for a non-padded field at most
+    private static final int MAX_DIGITS = 19;
+
+    private record Formatted(long epochDay, String text) {
+    }
+
+    // Entries are immutable, so racing writers at worst replace each other's entry
+    private static final Formatted[] CACHE = new Formatted[CACHE_SIZE];
+
+    private ShortDateCodec() {
+    }
+
+    /**
+     * Parses an {@code M/d/yy} date
+     * @param text the date
+     * @return the date
+     * @throws DateTimeParseException if the text is not a valid date
+     */
+    public static LocalDate parse(String text) {
+        return parse(text, false);
+    }
+
+    /**
+     * Parses an {@code MM/dd/yy} date
+     * @param text the date
+     * @return the date
+     * @throws DateTimeParseException if the text is not a valid date
+     */
+    public static LocalDate parsePadded(String text) {
+        return parse(text, true);
+    }
+
+    /**
+     * Formats a date as {@code MM/dd/yy}
+     * @param date the date
+     * @return the formatted date
+     */
+    public static String format(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        int slot = (int) (epochDay & (CACHE_SIZE - 1));
+        Formatted cached = CACHE[slot];
+        if (cached != null && cached.epochDay() == epochDay) {
+            return cached.text();
+        }
+        String text = formatUncached(date);
+        CACHE[slot] = new Formatted(epochDay, text);
+        return text;
+    }
+
+    /**
+     * Formats a date as {@code M/d/yy}
+     * @param date the date
+     * @return the formatted date
+     */
+    public static String formatUnpadded(LocalDate date) {
+        int year = Math.abs(date.getYear() % 100);
+        return date.getMonthValue() + "/" + date.getDayOfMonth() + (year < 10 ? "/0" : "/") + year;
+    }
+
+    private static String formatUncached(LocalDate date) {
+        char[] chars = new char[8];
+        putTwoDigits(chars, 0, date.getMonthValue());
+        chars[2] = '/';
+        putTwoDigits(chars, 3, date.getDayOfMonth());
+        chars[5] = '/';
+        putTwoDigits(chars, 6, Math.abs(date.getYear() % 100));
+        return new String(chars);
+    }
+
+    private static void putTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static LocalDate parse(String text, boolean padded) {
+        int length = text.length();
+
+        int monthEnd = digitsEnd(text, 0, padded);
+        if (monthEnd == 0) {
+            throw invalid(text, 0);
+        }
+        if (monthEnd == length || text.charAt(monthEnd) != '/') {
+            throw invalid(text, monthEnd);
+        }
+        int dayStart = monthEnd + 1;
+        int dayEnd = digitsEnd(text, dayStart, padded);
+        if (dayEnd == dayStart) {
+            throw invalid(text, dayStart);
+        }
+        if (dayEnd == length || text.charAt(dayEnd) != '/') {
+            throw invalid(text, dayEnd);
+        }
+        int yearStart = dayEnd + 1;
+        if (length - yearStart < 2 || !isDigit(text, yearStart) || !isDigit(text, yearStart + 1)) {
+            throw invalid(text, yearStart);
+        }
+        if (length != yearStart + 2) {
+            throw invalid(text, yearStart + 2);
+        }
+
+        long month = value(text, 0, monthEnd);
+        long day = value(text, dayStart, dayEnd);
+        int year = 2000 + (text.charAt(yearStart) - '0') * 10 + (text.charAt(yearStart + 1) - '0');
+        if (month < 1 || month > 12) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: Invalid value for MonthOfYear: " + month, text, 0);
+        }
+        if (day < 1 || day > 31) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: Invalid value for DayOfMonth: " + day, text, 0);
+        }
+        YearMonth yearMonth = YearMonth.of(year, (int) month);
+        return yearMonth.atDay((int) Math.min(day, yearMonth.lengthOfMonth()));
+    }
+
+    /**
+     * @return the index after the digits starting at the offset; for a padded field only if there are exactly two
+     */
+    private static int digitsEnd(String text, int offset, boolean padded) {
+        int end = offset;
+        while (end < text.length() && isDigit(text, end)) {
+            end++;
+        }
+        if (padded) {
+            return end - offset == 2 ? end : offset;
+        }
+        return end - offset <= MAX_DIGITS ? end : offset;
+    }
+
+    private static long value(String text, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            // Saturates well above any valid month or day, the range check rejects it
+            value = Math.min(value * 10 + (text.charAt(i) - '0'), 1000);
+        }
+        return value;
+    }
+
+    private static boolean isDigit(String text, int index) {
+        char c = text.charAt(index);
+        return c >= '0' && c <= '9';
+    }
+
+    private static DateTimeParseException invalid(String text, int index) {
+        return new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index, text, index);
+    }
+}
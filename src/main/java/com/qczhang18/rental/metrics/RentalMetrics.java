@@ -0,0 +1,106 @@
+package com.qczhang18.rental.metrics;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the checkout path.
+ * Request latency of the endpoints is recorded by Spring as {@code http.server.requests}.
+ */
+@Component
+public class RentalMetrics {
+
+    public enum Outcome {
+        SUCCESS("success"),
+        VALIDATION_ERROR("validation_error"),
+        UNAVAILABLE("unavailable"),
+        INTERNAL_ERROR("internal_error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String UNKNOWN_TOOL = "unknown";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final Timer checkoutTimer;
+    private final DistributionSummary rentalDays;
+    private final DistributionSummary chargeDays;
+    private final Map<String, Counter[]> outcomeCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RentalMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.checkoutTimer = Timer.builder("rental.checkout")
+                .description("Time to price a single rental request")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rentalDays = DistributionSummary.builder("rental.rental.days")
+                .description("Rental days of successful checkouts")
+                .baseUnit("days")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        this.chargeDays = DistributionSummary.builder("rental.charge.days")
+                .description("Charge days of successful checkouts")
+                .baseUnit("days")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    /**
+     * Metrics that are recorded nowhere, for services created outside of Spring
+     */
+    public static RentalMetrics disabled() {
+        return new RentalMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordCheckout(long nanos) {
+        checkoutTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSuccess(Agreement agreement) {
+        counter(agreement.getToolCode(), Outcome.SUCCESS).increment();
+        rentalDays.record(agreement.getRentalDays());
+        chargeDays.record(agreement.getChargeDays());
+    }
+
+    public void recordFailure(RentalRequest rentalRequest, Outcome outcome) {
+        String toolCode = rentalRequest == null || rentalRequest.getTool() == null
+                ? UNKNOWN_TOOL
+                : rentalRequest.getTool().getCode();
+        counter(toolCode, outcome).increment();
+    }
+
+    private Counter counter(String toolCode, Outcome outcome) {
+        return outcomeCounters.computeIfAbsent(toolCode, this::registerCounters)[outcome.ordinal()];
+    }
+
+    private Counter[] registerCounters(String toolCode) {
+        Outcome[] outcomes = Outcome.values();
+        Counter[] counters = new Counter[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            counters[outcome.ordinal()] = Counter.builder("rental.checkouts")
+                    .description("Checkout requests by tool and outcome")
+                    .tag("tool", toolCode)
+                    .tag("outcome", outcome.tag)
+                    .register(registry);
+        }
+        return counters;
+    }
+}
@@ -1,34 +1,43 @@
 package com.qczhang18.rental.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import lombok.*;
+import com.qczhang18.rental.json.AgreementDeserializer;
+import com.qczhang18.rental.json.AgreementSerializer;
+import lombok.Builder;
+import lombok.Value;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
-@Data
-@Setter
-@Getter
+/**
+ * Written by {@link AgreementSerializer} and read by {@link AgreementDeserializer}; the field annotations
+ * below still describe the wire format and are what those are tested against.
+ * <p>
+ * Immutable, since one agreement is handed to every request served from the quote cache.
+ */
+@JsonSerialize(using = AgreementSerializer.class)
+@JsonDeserialize(using = AgreementDeserializer.class)
+@Value
 @Builder
-@AllArgsConstructor
-@NoArgsConstructor
 public class Agreement {
 
-    private String toolCode;
-    private String toolType;
-    private String toolBrand;
-    private int rentalDays;
+    String toolCode;
+    String toolType;
+    String toolBrand;
+    int rentalDays;
     @JsonFormat(pattern = "MM/dd/yy")
-    private LocalDate checkoutDate;
+    LocalDate checkoutDate;
     @JsonFormat(pattern = "MM/dd/yy")
-    private LocalDate dueDate;
-    private BigDecimal dailyRentalCharge;
-    private int chargeDays;
-    private BigDecimal preDiscountCharge;
-    private int discountPercent;
-    private BigDecimal discountAmount;
-    private BigDecimal finalCharge;
+    LocalDate dueDate;
+    BigDecimal dailyRentalCharge;
+    int chargeDays;
+    BigDecimal preDiscountCharge;
+    int discountPercent;
+    BigDecimal discountAmount;
+    BigDecimal finalCharge;
 
     @Override
     public String toString() {
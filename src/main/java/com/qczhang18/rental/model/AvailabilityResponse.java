@@ -0,0 +1,18 @@
+package com.qczhang18.rental.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Data
+@Setter
+@Getter
+public class AvailabilityResponse {
+    private String message;
+    /**
+     * Earliest window of every unit that has one, earliest first
+     */
+    private List<AvailabilityWindow> windows;
+}
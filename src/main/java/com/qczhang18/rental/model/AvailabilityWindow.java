@@ -0,0 +1,18 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * A unit that can be checked out on the checkout date and kept until the due date
+ */
+@Value
+public class AvailabilityWindow {
+    int unit;
+    @JsonFormat(pattern = "MM/dd/yy")
+    LocalDate checkoutDate;
+    @JsonFormat(pattern = "MM/dd/yy")
+    LocalDate dueDate;
+}
@@ -0,0 +1,17 @@
+package com.qczhang18.rental.model;
+
+import lombok.*;
+
+/**
+ * One tool of a cart, with its own discount
+ */
+@Getter
+@Setter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItem {
+    private Tool tool;
+    private int discountPercent;
+}
@@ -0,0 +1,33 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Several tools rented together over the same period
+ */
+@Getter
+@Setter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartRequest {
+    private List<CartItem> items;
+    private int rentalDay;
+    @JsonFormat(pattern = "M/d/yy")
+    private LocalDate checkoutDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String holidayCalendar;
+
+    /**
+     * @return the rental request for one item of the cart
+     */
+    public RentalRequest toRentalRequest(CartItem item) {
+        return new RentalRequest(item.getTool(), rentalDay, item.getDiscountPercent(), checkoutDate, holidayCalendar);
+    }
+}
@@ -0,0 +1,28 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Setter
+@Getter
+public class CartResponse {
+    private String message;
+    /**
+     * One agreement per cart item, in cart order
+     */
+    private List<Agreement> items;
+    /**
+     * Journal ids of the item agreements, in cart order
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> agreementIds;
+    private BigDecimal preDiscountCharge;
+    private BigDecimal discountAmount;
+    private BigDecimal finalCharge;
+}
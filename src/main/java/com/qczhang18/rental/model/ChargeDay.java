@@ -0,0 +1,28 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * One day of a rental period in an explain trace
+ */
+@Value
+public class ChargeDay {
+
+    public enum Classification {
+        WEEKDAY, WEEKEND, HOLIDAY
+    }
+
+    int dayNumber;
+    @JsonFormat(pattern = "MM/dd/yy")
+    LocalDate date;
+    DayOfWeek dayOfWeek;
+    Classification classification;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String holiday;
+    boolean charged;
+}
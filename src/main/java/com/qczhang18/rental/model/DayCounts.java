@@ -0,0 +1,32 @@
+package com.qczhang18.rental.model;
+
+import lombok.Value;
+
+/**
+ * Classification of a rental period into weekday, weekend and holiday counts.
+ * Each day falls into exactly one bucket; holidays take priority over weekends.
+ */
+@Value
+public class DayCounts {
+
+    public static final DayCounts EMPTY = new DayCounts(0, 0, 0);
+
+    long weekdayCount;
+    long weekendCount;
+    long holidayCount;
+
+    public long getTotalDays() {
+        return weekdayCount + weekendCount + holidayCount;
+    }
+
+    /**
+     * Number of days in this period the given tool type is charged for
+     * @param toolType the type of tool
+     * @return the charge day count
+     */
+    public long chargeDays(Type toolType) {
+        return (toolType.isWeekdayCharge() ? weekdayCount : 0)
+                + (toolType.isWeekendCharge() ? weekendCount : 0)
+                + (toolType.isHolidayCharge() ? holidayCount : 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A rental whose checkout date may be any day between the earliest and latest checkout date
+ */
+@Getter
+@Setter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizeRequest {
+    private Tool tool;
+    private int rentalDay;
+    private int discountPercent;
+    @JsonFormat(pattern = "M/d/yy")
+    private LocalDate earliestCheckoutDate;
+    @JsonFormat(pattern = "M/d/yy")
+    private LocalDate latestCheckoutDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String holidayCalendar;
+
+    /**
+     * @return the rental request for one checkout date of the window
+     */
+    public RentalRequest toRentalRequest(LocalDate checkoutDate) {
+        return new RentalRequest(tool, rentalDay, discountPercent, checkoutDate, holidayCalendar);
+    }
+}
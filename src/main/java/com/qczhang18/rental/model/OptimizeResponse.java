@@ -0,0 +1,31 @@
+package com.qczhang18.rental.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Setter
+@Getter
+public class OptimizeResponse {
+    private String message;
+    /**
+     * Every checkout date of the window with the lowest final charge, earliest first
+     */
+    @JsonFormat(pattern = "MM/dd/yy")
+    private List<LocalDate> checkoutDates;
+    /**
+     * Agreement for the earliest of the cheapest checkout dates
+     */
+    private Agreement agreement;
+    /**
+     * Charge days and amount saved compared to checking out on the earliest date of the window
+     */
+    private int chargeDaysSaved;
+    private BigDecimal savings;
+}
@@ -1,10 +1,21 @@
 package com.qczhang18.rental.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.qczhang18.rental.json.RentalRequestDeserializer;
+import com.qczhang18.rental.json.RentalRequestSerializer;
 import lombok.*;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.LocalDate;
 
+/**
+ * Read from JSON by {@link RentalRequestDeserializer}, which parses the {@code M/d/yy} checkout date by hand
+ * instead of through the formatter {@code @JsonFormat} would use.
+ */
+@JsonSerialize(using = RentalRequestSerializer.class)
+@JsonDeserialize(using = RentalRequestDeserializer.class)
 @Getter
 @Setter
 @Data
@@ -17,4 +28,9 @@ public class RentalRequest {
     private int discountPercent;
     @JsonFormat(pattern = "M/d/yy")
     private LocalDate checkoutDate;
+    /**
+     * Name of the holiday calendar to price with, the default calendar when absent
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String holidayCalendar;
 }
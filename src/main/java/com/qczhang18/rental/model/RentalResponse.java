@@ -1,13 +1,35 @@
 package com.qczhang18.rental.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.qczhang18.rental.json.RentalResponseDeserializer;
+import com.qczhang18.rental.json.RentalResponseSerializer;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
+import java.util.List;
+
+/**
+ * Body of every checkout response, see {@link RentalResponseSerializer}
+ */
+@JsonSerialize(using = RentalResponseSerializer.class)
+@JsonDeserialize(using = RentalResponseDeserializer.class)
 @Data
 @Setter
 @Getter
 public class RentalResponse {
     private String message;
     private Agreement agreement;
+    /**
+     * Id of the agreement in the journal, see {@code GET /agreements/{id}}
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long agreementId;
+    /**
+     * Day by day breakdown of the charge, only present when explicitly requested
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ChargeDay> trace;
 }
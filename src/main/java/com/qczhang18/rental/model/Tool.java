@@ -1,23 +1,49 @@
 package com.qczhang18.rental.model;
 
-import lombok.Getter;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.qczhang18.rental.catalog.ToolCatalog;
+import lombok.Value;
 
-@Getter
-public enum Tool {
-    CHNS("CHNS", Type.Chainsaw, "Stihl"),
-    LADW("LADW", Type.Ladder, "Werner"),
-    JAKD("JAKD", Type.Jackhammer, "DeWalt"),
-    JAKR("JAKR", Type.Jackhammer, "Ridgid");
+/**
+ * A rentable tool, identified by its code. Tools are loaded from the tool catalog;
+ * the built-in ones below are its defaults.
+ */
+@Value
+public class Tool {
 
-    private final String code;
-    private final Type type;
-    private final String brand;
+    public static final Tool CHNS = new Tool("CHNS", Type.Chainsaw, "Stihl");
+    public static final Tool LADW = new Tool("LADW", Type.Ladder, "Werner");
+    public static final Tool JAKD = new Tool("JAKD", Type.Jackhammer, "DeWalt");
+    public static final Tool JAKR = new Tool("JAKR", Type.Jackhammer, "Ridgid");
 
-    Tool(String code, Type type, String brand) {
-        this.code = code;
-        this.type = type;
-        this.brand = brand;
+    String code;
+    Type type;
+    String brand;
+
+    /**
+     * Looks the tool up in the current catalog
+     *
+     * @param code the tool code
+     * @return the tool
+     * @throws IllegalArgumentException if the catalog has no tool with the code
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Tool of(String code) {
+        return ToolCatalog.current().find(code)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tool code \"" + code + "\""));
     }
 
-}
+    /**
+     * @return the tools of the current catalog
+     */
+    public static Tool[] values() {
+        return ToolCatalog.current().getTools().toArray(new Tool[0]);
+    }
 
+    @JsonValue
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -1,27 +1,47 @@
 package com.qczhang18.rental.model;
 
-import lombok.Getter;
+import com.qczhang18.rental.catalog.ToolCatalog;
+import com.qczhang18.rental.util.Money;
+import lombok.Value;
 
 import java.math.BigDecimal;
 
-@Getter
-public enum Type {
-    Ladder("Ladder", new BigDecimal("1.99"), true, true, false),
-    Chainsaw("Chainsaw", new BigDecimal("1.49"), true, false, true),
-    Jackhammer("Jackhammer", new BigDecimal("2.99"), true, false, false);
+/**
+ * A tool type with its daily charge and the kinds of days it is charged for.
+ * Types are loaded from the tool catalog; the built-in ones below are its defaults.
+ */
+@Value
+public class Type {
 
-    Type(String name, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+    public static final Type Ladder = new Type("Ladder", new BigDecimal("1.99"), true, true, false);
+    public static final Type Chainsaw = new Type("Chainsaw", new BigDecimal("1.49"), true, false, true);
+    public static final Type Jackhammer = new Type("Jackhammer", new BigDecimal("2.99"), true, false, false);
+
+    String name;
+    BigDecimal dailyCharge;
+    long dailyChargeCents;
+    boolean weekdayCharge;
+    boolean weekendCharge;
+    boolean holidayCharge;
+
+    public Type(String name, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
         this.name = name;
         this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Money.toCents(dailyCharge);
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
     }
 
-    private final String name;
-    private final BigDecimal dailyCharge;
-    private final boolean weekdayCharge;
-    private final boolean weekendCharge;
-    private final boolean holidayCharge;
+    /**
+     * @return the types of the current catalog
+     */
+    public static Type[] values() {
+        return ToolCatalog.current().getTypes().toArray(new Type[0]);
+    }
 
+    @Override
+    public String toString() {
+        return name;
+    }
 }
@@ -0,0 +1,119 @@
+package com.qczhang18.rental.service;
+
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Prices large lists of rental requests across cores on a dedicated fork-join pool.
+ * Pricing is CPU bound and the calendar and charge index are immutable once built,
+ * so workers share them without coordination. Output order always matches input order.
+ * Batches are re-priced as quotes: nothing is reserved, journaled or audited.
+ */
+@Service
+public class BatchPricingService {
+
+    /**
+     * Smallest number of requests a worker prices without splitting further
+     */
+    private static final int MIN_LEAF_SIZE = 64;
+
+    private final RentalService rentalService;
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of requests the batch endpoint reads before handing them to the pool
+     */
+    @Getter
+    private final int chunkSize;
+
+    @Autowired
+    public BatchPricingService(RentalService rentalService,
+                               @Value("${rental.batch.parallelism:0}") int parallelism,
+                               @Value("${rental.batch.chunk-size:1024}") int chunkSize) {
+        this.rentalService = rentalService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Validates and quotes every request, see {@link RentalService#quote(RentalRequest, boolean)}
+     *
+     * @param rentalRequests the requests
+     * @return one response per request, in the same order
+     */
+    public List<RentalResponse> priceAll(List<RentalRequest> rentalRequests) {
+        return priceAll(rentalRequests, rentalRequest -> rentalService.quote(rentalRequest, false));
+    }
+
+    /**
+     * Applies a pricing function to every item in parallel
+     *
+     * @param items   the items to price
+     * @param pricing turns one item into its response, must be safe to call concurrently
+     * @return one response per item, in the same order
+     */
+    public <T> List<RentalResponse> priceAll(List<T> items, Function<? super T, RentalResponse> pricing) {
+        List<T> source = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        RentalResponse[] responses = new RentalResponse[source.size()];
+        if (responses.length > 0) {
+            int leafSize = Math.max(MIN_LEAF_SIZE, responses.length / (pool.getParallelism() * 8));
+            pool.invoke(new PriceRange<>(source, pricing, responses, 0, responses.length, leafSize));
+        }
+        return Arrays.asList(responses);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static final class PriceRange<T> extends RecursiveAction {
+
+        private final List<T> items;
+        private final Function<? super T, RentalResponse> pricing;
+        private final RentalResponse[] responses;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private PriceRange(List<T> items, Function<? super T, RentalResponse> pricing,
+                           RentalResponse[] responses, int from, int to, int leafSize) {
+            this.items = items;
+            this.pricing = pricing;
+            this.responses = responses;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    responses[i] = pricing.apply(items.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PriceRange<>(items, pricing, responses, from, middle, leafSize),
+                    new PriceRange<>(items, pricing, responses, middle, to, leafSize));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.qczhang18.rental.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Responses of checkouts by the {@code Idempotency-Key} the client sent with them, so a retried
+ * checkout is answered with the original response instead of being checked out again.
+ * <p>
+ * The first request with a key registers an in-flight future and processes the checkout;
+ * duplicates arriving meanwhile wait on that future rather than processing it too. A successful
+ * response is kept until it expires or is evicted by size. A failed one is forgotten once the
+ * requests waiting for it have it, so the next retry is processed again. Lookups are published
+ * as {@code cache.*} meters tagged {@code cache=rental.idempotency}.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(RentalRequest rentalRequest, boolean explain, CompletableFuture<RentalResponse> response) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final long waitTimeoutNanos;
+
+    @Autowired
+    public IdempotencyCache(@Value("${rental.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${rental.idempotency.expire-after-write:24h}") Duration expireAfterWrite,
+                            @Value("${rental.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                            MeterRegistry registry) {
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        if (maximumSize <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "rental.idempotency");
+    }
+
+    /**
+     * A cache that processes every request, for controllers created outside of Spring
+     */
+    public static IdempotencyCache disabled() {
+        return new IdempotencyCache(0, Duration.ZERO, Duration.ZERO, null);
+    }
+
+    /**
+     * Processes a checkout once per idempotency key
+     *
+     * @param key           the idempotency key sent by the client, null to always process
+     * @param rentalRequest the rental request, a key can only be reused for an equal request
+     * @param explain       whether the response explains the charge, part of the request like the body
+     * @param processing    checks the request out
+     * @return the response of the first request with the key
+     */
+    public RentalResponse process(String key, RentalRequest rentalRequest, boolean explain,
+                                  Supplier<RentalResponse> processing) {
+        if (cache == null || key == null) {
+            return processing.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return message(String.format("validation error, please check your request : Idempotency key must be 1 to %s characters ", MAX_KEY_LENGTH));
+        }
+
+        Entry created = new Entry(rentalRequest, explain, new CompletableFuture<>());
+        Entry entry = cache.get(key, ignored -> created);
+        if (entry == created) {
+            return processFirst(key, created, processing);
+        }
+
+        if (!entry.rentalRequest().equals(rentalRequest) || entry.explain() != explain) {
+            return message(String.format("validation error, please check your request : Idempotency key \"%s\" was already used for a different request ", key));
+        }
+        try {
+            return entry.response().get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            return message(String.format("request in progress, please retry later : Idempotency key \"%s\" is still being processed ", key));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return message("internal server error, please contact support");
+        } catch (ExecutionException exception) {
+            return message("internal server error, please contact support");
+        }
+    }
+
+    private RentalResponse processFirst(String key, Entry entry, Supplier<RentalResponse> processing) {
+        RentalResponse rentalResponse;
+        try {
+            rentalResponse = processing.get();
+        } catch (RuntimeException | Error exception) {
+            entry.response().completeExceptionally(exception);
+            cache.asMap().remove(key, entry);
+            throw exception;
+        }
+        entry.response().complete(rentalResponse);
+        // Nothing was checked out, so a retry may as well try again
+        if (rentalResponse.getAgreement() == null) {
+            cache.asMap().remove(key, entry);
+        }
+        return rentalResponse;
+    }
+
+    private static RentalResponse message(String message) {
+        RentalResponse rentalResponse = new RentalResponse();
+        rentalResponse.setMessage(message);
+        return rentalResponse;
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+}
@@ -0,0 +1,93 @@
+package com.qczhang18.rental.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.Tool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Size and time bounded cache of agreements keyed by the pricing inputs of a request.
+ * Pricing is a pure function of tool, rental days, discount, checkout date and holiday calendar, so repeated
+ * quotes are served from here. Eviction is W-TinyLFU; hit, miss and eviction counts are
+ * published as {@code cache.*} meters tagged {@code cache=rental.quotes}.
+ * <p>
+ * Cached agreements are shared between requests, which is safe because agreements are immutable.
+ */
+@Component
+public class QuoteCache {
+
+    // The tool compares by value, type and charges included, so quotes priced before a catalog reload never match after it
+    private record Key(Tool tool, int rentalDay, int discountPercent, LocalDate checkoutDate, String holidayCalendar) {
+    }
+
+    private final Cache<Key, Agreement> cache;
+
+    @Autowired
+    public QuoteCache(@Value("${rental.quote-cache.maximum-size:100000}") long maximumSize,
+                      @Value("${rental.quote-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                      MeterRegistry registry) {
+        if (maximumSize <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "rental.quotes");
+    }
+
+    /**
+     * A cache that always prices, for services created outside of Spring
+     */
+    public static QuoteCache disabled() {
+        return new QuoteCache(0, Duration.ZERO, null);
+    }
+
+    /**
+     * Returns the cached agreement for the request's pricing inputs, pricing it on a miss
+     *
+     * @param rentalRequest   the rental request
+     * @param holidayCalendar name of the calendar the request is priced with, resolved from the request's,
+     *                        so a request naming the default calendar shares quotes with one leaving it out
+     * @param pricing         computes the agreement on a miss
+     * @return the agreement
+     */
+    public Agreement get(RentalRequest rentalRequest, String holidayCalendar, Function<RentalRequest, Agreement> pricing) {
+        if (cache == null) {
+            return pricing.apply(rentalRequest);
+        }
+        Key key = new Key(rentalRequest.getTool(), rentalRequest.getRentalDay(),
+                rentalRequest.getDiscountPercent(), rentalRequest.getCheckoutDate(), holidayCalendar);
+        return cache.get(key, ignored -> pricing.apply(rentalRequest));
+    }
+
+    /**
+     * Drops every cached agreement, to be called when the tool catalog or holiday rules change
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+}
@@ -1,119 +1,435 @@
 package com.qczhang18.rental.service;
 
+import com.qczhang18.rental.audit.AuditEvent;
+import com.qczhang18.rental.audit.AuditLog;
+import com.qczhang18.rental.exception.UnavailableException;
+import com.qczhang18.rental.exception.ValidationException;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.inventory.Reservation;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
 import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.CartItem;
+import com.qczhang18.rental.model.CartRequest;
+import com.qczhang18.rental.model.CartResponse;
+import com.qczhang18.rental.model.ChargeDay;
+import com.qczhang18.rental.model.DayCounts;
+import com.qczhang18.rental.model.OptimizeRequest;
+import com.qczhang18.rental.model.OptimizeResponse;
 import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
 import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.util.ChargeDayCounter;
+import com.qczhang18.rental.util.ChargeDayIndex;
 import com.qczhang18.rental.util.ChargingDateUtil;
-import lombok.extern.slf4j.Slf4j;
+import com.qczhang18.rental.util.HolidayCalendar;
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.Money;
+import com.qczhang18.rental.util.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 
 
 @Service
-@Slf4j
 public class RentalService {
 
+    /**
+     * Longest rental an explain trace is built for, one entry is allocated per day
+     */
+    public static final int MAX_EXPLAIN_DAYS = 3660;
+
+    /**
+     * Most checkout dates a single optimize request compares
+     */
+    public static final int MAX_OPTIMIZE_WINDOW_DAYS = 3660;
+
+    /**
+     * Most tools a single cart checks out
+     */
+    public static final int MAX_CART_ITEMS = 50;
+
+    private final HolidayCalendars holidayCalendars;
+    private final RentalMetrics metrics;
+    private final QuoteCache quoteCache;
+    private final AgreementJournal agreementJournal;
+    private final InventoryService inventory;
+    private final AuditLog auditLog;
+
+    public RentalService() {
+        this(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(), AgreementJournal.disabled(),
+                InventoryService.unlimited(), AuditLog.disabled());
+    }
+
+    @Autowired
+    public RentalService(HolidayCalendars holidayCalendars, RentalMetrics metrics, QuoteCache quoteCache,
+                         AgreementJournal agreementJournal, InventoryService inventory, AuditLog auditLog) {
+        this.holidayCalendars = holidayCalendars;
+        this.metrics = metrics;
+        this.quoteCache = quoteCache;
+        this.agreementJournal = agreementJournal;
+        this.inventory = inventory;
+        this.auditLog = auditLog;
+    }
+
+    public RentalResponse process(RentalRequest rentalRequest) {
+        return process(rentalRequest, false);
+    }
+
+    /**
+     * Validates and checks out a single request, reporting any failure in the response message.
+     * A unit of the tool is reserved for the rental period, the outcome is recorded in the metrics
+     * and a successful agreement is appended to the journal and published to the audit log.
+     *
+     * @param rentalRequest the rental request
+     * @param explain       also return the day by day breakdown of the charge
+     * @return the response with the agreement on success
+     */
+    public RentalResponse process(RentalRequest rentalRequest, boolean explain) {
+        return respond(rentalRequest, explain, true);
+    }
+
+    /**
+     * Prices a single request like {@link #process(RentalRequest, boolean)}, without reserving
+     * a unit, recording metrics or journaling the agreement
+     *
+     * @param rentalRequest the rental request
+     * @param explain       also return the day by day breakdown of the charge
+     * @return the response with the agreement on success
+     */
+    public RentalResponse quote(RentalRequest rentalRequest, boolean explain) {
+        return respond(rentalRequest, explain, false);
+    }
+
+    private RentalResponse respond(RentalRequest rentalRequest, boolean explain, boolean record) {
+
+        RentalResponse rentalResponse = new RentalResponse();
+
+        try {
+            Validator.validateRequest(rentalRequest);
+            if (explain && rentalRequest.getRentalDay() > MAX_EXPLAIN_DAYS) {
+                throw new ValidationException(String.format("Rental day \"%s\" is too long to explain. Must be at most %s ", rentalRequest.getRentalDay(), MAX_EXPLAIN_DAYS));
+            }
+            ChargeDayIndex chargeDayIndex = chargeDayIndex(rentalRequest.getHolidayCalendar());
+            long start = System.nanoTime();
+            Agreement agreement = checkout(rentalRequest);
+            if (record) {
+                metrics.recordCheckout(System.nanoTime() - start);
+                Reservation reservation = inventory.reserve(agreement.getToolCode(),
+                        agreement.getCheckoutDate(), agreement.getDueDate());
+                try {
+                    if (agreementJournal.isEnabled()) {
+                        rentalResponse.setAgreementId(agreementJournal.append(agreement));
+                    }
+                } catch (Exception exception) {
+                    inventory.release(reservation);
+                    throw exception;
+                }
+            }
+            rentalResponse.setAgreement(agreement);
+            if (explain) {
+                rentalResponse.setTrace(explain(agreement.getCheckoutDate().plusDays(1), agreement.getDueDate(),
+                        rentalRequest.getTool().getType(), chargeDayIndex.getCalendar()));
+            }
+            rentalResponse.setMessage("success");
+            if (record) {
+                metrics.recordSuccess(agreement);
+                auditLog.publish(AuditEvent.of(agreement, rentalResponse.getAgreementId(), rentalRequest.getHolidayCalendar()));
+            }
+        } catch (ValidationException exception) {
+            rentalResponse.setMessage("validation error, please check your request : " + exception.getMessage());
+            if (record) {
+                metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.VALIDATION_ERROR);
+            }
+        } catch (UnavailableException exception) {
+            rentalResponse.setMessage("tool unavailable, please choose other dates : " + exception.getMessage());
+            if (record) {
+                metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.UNAVAILABLE);
+            }
+        } catch (Exception exception) {
+            rentalResponse.setMessage("internal server error, please contact support");
+            if (record) {
+                metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.INTERNAL_ERROR);
+            }
+        }
+
+        return rentalResponse;
+    }
+
+    /**
+     * Finds the checkout dates in a window with the lowest final charge. Charge days are counted
+     * for every checkout date in one pass over the window and turned into final charges in cents;
+     * agreements are only built for the cheapest and the earliest dates. Like
+     * {@link #quote(RentalRequest, boolean)}, nothing is reserved or recorded.
+     *
+     * @param optimizeRequest the rental and the window of checkout dates
+     * @return the cheapest checkout dates with the agreement of the earliest of them
+     */
+    public OptimizeResponse optimize(OptimizeRequest optimizeRequest) {
+
+        OptimizeResponse optimizeResponse = new OptimizeResponse();
+
+        try {
+            if (optimizeRequest == null) {
+                throw new ValidationException("request is null");
+            }
+            LocalDate earliest = optimizeRequest.getEarliestCheckoutDate();
+            LocalDate latest = optimizeRequest.getLatestCheckoutDate();
+            Validator.validateRequest(optimizeRequest.toRentalRequest(earliest));
+            if (earliest == null || latest == null || latest.isBefore(earliest)) {
+                throw new ValidationException(String.format("Checkout window from %s to %s is invalid. Latest must not be before earliest ", earliest, latest));
+            }
+            if (latest.toEpochDay() - earliest.toEpochDay() >= MAX_OPTIMIZE_WINDOW_DAYS) {
+                throw new ValidationException(String.format("Checkout window from %s to %s is too long. Must be at most %s days ", earliest, latest, MAX_OPTIMIZE_WINDOW_DAYS));
+            }
+            ChargeDayIndex chargeDayIndex = chargeDayIndex(optimizeRequest.getHolidayCalendar());
+
+            int[] chargeDays = chargeDayIndex.countChargeDaysByCheckout(earliest, latest,
+                    optimizeRequest.getRentalDay(), optimizeRequest.getTool().getType());
+            // Ranked by the final charge itself, not the charge days: a full discount makes every date free
+            long dailyChargeCents = optimizeRequest.getTool().getType().getDailyChargeCents();
+            long lowest = Long.MAX_VALUE;
+            List<LocalDate> cheapest = new ArrayList<>();
+            for (int i = 0; i < chargeDays.length; i++) {
+                long chargeAmount = Money.multiply(dailyChargeCents, chargeDays[i]);
+                long finalCharge = chargeAmount - Money.percentage(chargeAmount, optimizeRequest.getDiscountPercent());
+                if (finalCharge < lowest) {
+                    lowest = finalCharge;
+                    cheapest.clear();
+                }
+                if (finalCharge == lowest) {
+                    cheapest.add(earliest.plusDays(i));
+                }
+            }
+
+            Agreement best = checkout(optimizeRequest.toRentalRequest(cheapest.get(0)));
+            Agreement first = checkout(optimizeRequest.toRentalRequest(earliest));
+            optimizeResponse.setCheckoutDates(cheapest);
+            optimizeResponse.setAgreement(best);
+            optimizeResponse.setChargeDaysSaved(first.getChargeDays() - best.getChargeDays());
+            optimizeResponse.setSavings(first.getFinalCharge().subtract(best.getFinalCharge()));
+            optimizeResponse.setMessage("success");
+        } catch (ValidationException exception) {
+            optimizeResponse.setMessage("validation error, please check your request : " + exception.getMessage());
+        } catch (Exception exception) {
+            optimizeResponse.setMessage("internal server error, please contact support");
+        }
+
+        return optimizeResponse;
+    }
+
+    /**
+     * Prices a request. Nothing is logged here; checkouts that are kept reach the {@link AuditLog}.
+     */
     public Agreement checkout(RentalRequest rentalRequest) {
+        return quoteCache.get(rentalRequest, holidayCalendars.resolve(rentalRequest.getHolidayCalendar()),
+                this::calculateRentalCharge);
+    }
 
-        log.info("Processing rental request: {}", rentalRequest);
+    private ChargeDayIndex chargeDayIndex(String holidayCalendar) throws ValidationException {
+        return holidayCalendars.find(holidayCalendar)
+                .orElseThrow(() -> new ValidationException(String.format("Holiday calendar \"%s\" is unknown. Must be one of %s ",
+                        holidayCalendar, new TreeSet<>(holidayCalendars.getNames()))));
+    }
+
+    /**
+     * Checks out every tool of a cart over the same period. The period is classified into weekday,
+     * weekend and holiday counts once and reused for every tool type; quotes are not cached per item.
+     * A unit is reserved for every item, and all of them are released again if any item cannot be
+     * reserved or journaled, so a cart is checked out completely or not at all.
+     *
+     * @param cartRequest the tools and the shared rental period
+     * @return the response with one agreement per item and the cart totals on success
+     */
+    public CartResponse checkoutCart(CartRequest cartRequest) {
 
-        Agreement agreement = calculateRentalCharge(rentalRequest);
+        CartResponse cartResponse = new CartResponse();
+        List<RentalRequest> rentalRequests = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
 
-        log.info("Generated agreement:\n{}", agreement);
-        return agreement;
+        try {
+            if (cartRequest == null || cartRequest.getItems() == null || cartRequest.getItems().isEmpty()) {
+                throw new ValidationException("cart is empty");
+            }
+            if (cartRequest.getItems().size() > MAX_CART_ITEMS) {
+                throw new ValidationException(String.format("Cart has %s items. Must be at most %s ", cartRequest.getItems().size(), MAX_CART_ITEMS));
+            }
+            for (CartItem item : cartRequest.getItems()) {
+                if (item == null) {
+                    throw new ValidationException("cart item is null");
+                }
+                RentalRequest rentalRequest = cartRequest.toRentalRequest(item);
+                Validator.validateRequest(rentalRequest);
+                rentalRequests.add(rentalRequest);
+            }
+            ChargeDayIndex chargeDayIndex = chargeDayIndex(cartRequest.getHolidayCalendar());
+
+            long start = System.nanoTime();
+            LocalDate dueDate = cartRequest.getCheckoutDate().plusDays(cartRequest.getRentalDay());
+            DayCounts dayCounts = ChargeDayCounter.classify(cartRequest.getCheckoutDate().plusDays(1), dueDate,
+                    chargeDayIndex.getCalendar());
+            List<Agreement> agreements = new ArrayList<>();
+            for (RentalRequest rentalRequest : rentalRequests) {
+                int chargeableDays = Math.toIntExact(dayCounts.chargeDays(rentalRequest.getTool().getType()));
+                agreements.add(buildAgreement(rentalRequest, dueDate, chargeableDays));
+            }
+            metrics.recordCheckout(System.nanoTime() - start);
+
+            List<Long> agreementIds = new ArrayList<>();
+            try {
+                for (Agreement agreement : agreements) {
+                    reservations.add(inventory.reserve(agreement.getToolCode(),
+                            agreement.getCheckoutDate(), agreement.getDueDate()));
+                }
+                if (agreementJournal.isEnabled()) {
+                    // Journaled together, so a cart that fails here is not restored in part on restart
+                    agreementIds.addAll(agreementJournal.appendAll(agreements));
+                    cartResponse.setAgreementIds(agreementIds);
+                }
+            } catch (Exception exception) {
+                reservations.forEach(inventory::release);
+                throw exception;
+            }
+
+            BigDecimal preDiscountCharge = BigDecimal.ZERO;
+            BigDecimal discountAmount = BigDecimal.ZERO;
+            BigDecimal finalCharge = BigDecimal.ZERO;
+            for (Agreement agreement : agreements) {
+                preDiscountCharge = preDiscountCharge.add(agreement.getPreDiscountCharge());
+                discountAmount = discountAmount.add(agreement.getDiscountAmount());
+                finalCharge = finalCharge.add(agreement.getFinalCharge());
+            }
+            cartResponse.setItems(agreements);
+            cartResponse.setPreDiscountCharge(preDiscountCharge);
+            cartResponse.setDiscountAmount(discountAmount);
+            cartResponse.setFinalCharge(finalCharge);
+            cartResponse.setMessage("success");
+            for (int i = 0; i < agreements.size(); i++) {
+                metrics.recordSuccess(agreements.get(i));
+                auditLog.publish(AuditEvent.of(agreements.get(i),
+                        agreementIds.isEmpty() ? null : agreementIds.get(i), cartRequest.getHolidayCalendar()));
+            }
+        } catch (ValidationException exception) {
+            cartResponse.setMessage("validation error, please check your request : " + exception.getMessage());
+            rentalRequests.forEach(rentalRequest -> metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.VALIDATION_ERROR));
+        } catch (UnavailableException exception) {
+            cartResponse.setMessage("tool unavailable, please choose other dates : " + exception.getMessage());
+            rentalRequests.forEach(rentalRequest -> metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.UNAVAILABLE));
+        } catch (Exception exception) {
+            cartResponse.setMessage("internal server error, please contact support");
+            rentalRequests.forEach(rentalRequest -> metrics.recordFailure(rentalRequest, RentalMetrics.Outcome.INTERNAL_ERROR));
+        }
+
+        return cartResponse;
     }
 
     private Agreement calculateRentalCharge(RentalRequest rentalRequest) {
+        Type toolType = rentalRequest.getTool().getType();
         LocalDate startDate = rentalRequest.getCheckoutDate().plusDays(1);
         LocalDate dueDate = rentalRequest.getCheckoutDate().plusDays(rentalRequest.getRentalDay());
 
-        int chargeableDays = getChargingDates(startDate, dueDate, rentalRequest.getTool().getType()).size();
-        BigDecimal chargeAmount = rentalRequest.getTool().getType().getDailyCharge().multiply(BigDecimal.valueOf(chargeableDays));
-        BigDecimal discountAmount = chargeAmount.multiply(BigDecimal.valueOf(rentalRequest.getDiscountPercent())).divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP);
+        // The calendar was validated before checkout
+        ChargeDayIndex chargeDayIndex = holidayCalendars.find(rentalRequest.getHolidayCalendar()).orElseThrow();
+
+        return buildAgreement(rentalRequest, dueDate, chargeDayIndex.countChargeDays(startDate, dueDate, toolType));
+    }
+
+    private Agreement buildAgreement(RentalRequest rentalRequest, LocalDate dueDate, int chargeableDays) {
+        Type toolType = rentalRequest.getTool().getType();
+
+        // Amounts are long cents until they are put on the agreement
+        long chargeAmount = Money.multiply(toolType.getDailyChargeCents(), chargeableDays);
+        long discountAmount = Money.percentage(chargeAmount, rentalRequest.getDiscountPercent());
 
         return Agreement.builder()
                 .toolCode(rentalRequest.getTool().getCode())
-                .toolType(rentalRequest.getTool().getType().getName())
+                .toolType(toolType.getName())
                 .toolBrand(rentalRequest.getTool().getBrand())
                 .rentalDays(rentalRequest.getRentalDay())
                 .checkoutDate(rentalRequest.getCheckoutDate())
                 .dueDate(dueDate)
-                .dailyRentalCharge(rentalRequest.getTool().getType().getDailyCharge())
+                .dailyRentalCharge(toolType.getDailyCharge())
                 .chargeDays(chargeableDays)
-                .preDiscountCharge(chargeAmount)
+                .preDiscountCharge(Money.toBigDecimal(chargeAmount))
                 .discountPercent(rentalRequest.getDiscountPercent())
-                .discountAmount(discountAmount)
-                .finalCharge(chargeAmount.subtract(discountAmount))
+                .discountAmount(Money.toBigDecimal(discountAmount))
+                .finalCharge(Money.toBigDecimal(chargeAmount - discountAmount))
                 .build();
     }
 
+    /**
+     * Walks the rental period day by day and returns every charged date.
+     * Only used to explain a charge; pricing counts days with {@link ChargeDayIndex}
+     * and {@link ChargeDayCounter} so its cost does not grow with the rental length.
+     *
+     * @param startDate first day of the rental period
+     * @param dueDate   last day of the rental period
+     * @param toolType  the type of tool
+     * @return the charged dates in order
+     */
     public List<LocalDate> getChargingDates(LocalDate startDate, LocalDate dueDate, Type toolType) {
         List<LocalDate> chargingDates = new ArrayList<>();
-        List<LocalDate> inspectedDates = new ArrayList<>();
-
-        // Log rental period and tool charging configuration
-        log.info("=".repeat(80));
-        log.info("Starting charge calculation for tool rental");
-        log.info("Tool Type: {}", toolType.getName());
-        log.info("Daily Charge: ${}", toolType.getDailyCharge());
-        log.info("Charging Flags - Weekday: {}, Weekend: {}, Holiday: {}",
-                toolType.isWeekdayCharge(),
-                toolType.isWeekendCharge(),
-                toolType.isHolidayCharge());
-        log.info("Rental Period: {} to {} (inclusive)", startDate, dueDate);
-        log.info("=".repeat(80));
-
-        // Iterate through each day in the rental period (both dates inclusive)
+        for (ChargeDay chargeDay : explain(startDate, dueDate, toolType)) {
+            if (chargeDay.isCharged()) {
+                chargingDates.add(chargeDay.getDate());
+            }
+        }
+        return chargingDates;
+    }
+
+    /**
+     * Classifies every day of the rental period (both dates inclusive) and whether it is charged,
+     * using the default US holidays
+     *
+     * @param startDate first day of the rental period
+     * @param dueDate   last day of the rental period
+     * @param toolType  the type of tool
+     * @return one entry per day in order
+     */
+    public List<ChargeDay> explain(LocalDate startDate, LocalDate dueDate, Type toolType) {
+        return explain(startDate, dueDate, toolType, HolidayCalendar.DEFAULT);
+    }
+
+    /**
+     * Classifies every day of the rental period (both dates inclusive) and whether it is charged
+     *
+     * @param startDate first day of the rental period
+     * @param dueDate   last day of the rental period
+     * @param toolType  the type of tool
+     * @param calendar  the holidays to apply
+     * @return one entry per day in order
+     */
+    public List<ChargeDay> explain(LocalDate startDate, LocalDate dueDate, Type toolType, HolidayCalendar calendar) {
+        List<ChargeDay> trace = new ArrayList<>();
         LocalDate currentDate = startDate;
         int dayNumber = 1;
 
         while (!currentDate.isAfter(dueDate)) {
-            inspectedDates.add(currentDate);
-
-            boolean isHoliday = ChargingDateUtil.isHoliday(currentDate);
+            String holiday = calendar.holidayName(currentDate);
+            boolean isHoliday = holiday != null;
             boolean isWeekend = ChargingDateUtil.isWeekend(currentDate);
-            boolean shouldCharge = shouldChargeForDate(currentDate, toolType);
 
-            // Determine date classification for logging
-            String classification;
+            ChargeDay.Classification classification;
             if (isHoliday) {
-                String holidayName = ChargingDateUtil.isIndependenceDay(currentDate)
-                        ? "Independence Day"
-                        : "Labor Day";
-                classification = String.format("Holiday (%s)", holidayName);
+                classification = ChargeDay.Classification.HOLIDAY;
             } else if (isWeekend) {
-                classification = String.format("Weekend (%s)", currentDate.getDayOfWeek());
+                classification = ChargeDay.Classification.WEEKEND;
             } else {
-                classification = String.format("Weekday (%s)", currentDate.getDayOfWeek());
+                classification = ChargeDay.Classification.WEEKDAY;
             }
 
-            // Log each day inspection
-            if (shouldCharge) {
-                log.info("Day {}: {} | {} | Classification: {} | CHARGED ✓",
-                        dayNumber, currentDate, currentDate.getDayOfWeek(), classification);
-                chargingDates.add(currentDate);
-            } else {
-                log.info("Day {}: {} | {} | Classification: {} | NOT CHARGED ✗",
-                        dayNumber, currentDate, currentDate.getDayOfWeek(), classification);
-            }
+            trace.add(new ChargeDay(dayNumber, currentDate, currentDate.getDayOfWeek(), classification, holiday,
+                    shouldCharge(isHoliday, isWeekend, toolType)));
 
             currentDate = currentDate.plusDays(1);
             dayNumber++;
         }
-
-        // Log summary
-        log.info("=".repeat(80));
-        log.info("Charge Calculation Summary");
-        log.info("Total Days Inspected: {}", inspectedDates.size());
-        log.info("Total Charge Days: {}", chargingDates.size());
-        log.info("Total Non-Charge Days: {}", inspectedDates.size() - chargingDates.size());
-        log.info("=".repeat(80));
-        return chargingDates;
+        return trace;
     }
 
     /**
@@ -125,9 +441,10 @@ public class RentalService {
      * @return true if this date should be charged
      */
     public boolean shouldChargeForDate(LocalDate date, Type toolType) {
-        boolean isHoliday = ChargingDateUtil.isHoliday(date);
-        boolean isWeekend = ChargingDateUtil.isWeekend(date);
+        return shouldCharge(ChargingDateUtil.isHoliday(date), ChargingDateUtil.isWeekend(date), toolType);
+    }
 
+    private boolean shouldCharge(boolean isHoliday, boolean isWeekend, Type toolType) {
         // Priority: Holiday check first, then weekend/weekday
         if (isHoliday) {
             return toolType.isHolidayCharge();
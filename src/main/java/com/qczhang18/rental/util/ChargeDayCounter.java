@@ -0,0 +1,72 @@
+package com.qczhang18.rental.util;
+
+import com.qczhang18.rental.model.DayCounts;
+import com.qczhang18.rental.model.Type;
+
+import java.time.LocalDate;
+
+/**
+ * Counts the days of a rental period arithmetically instead of walking it day by day.
+ * Weekends come from full weeks plus the remainder, holidays from a per-year correction
+ * read off the {@link HolidayCalendar}, so the cost does not depend on the rental length.
+ */
+public class ChargeDayCounter {
+
+    /**
+     * Counts the days between the start and due date (both inclusive) the tool type is charged for
+     * @param startDate first day of the rental period
+     * @param dueDate   last day of the rental period
+     * @param toolType  the type of tool
+     * @return the number of charge days
+     */
+    public static int countChargeDays(LocalDate startDate, LocalDate dueDate, Type toolType) {
+        return Math.toIntExact(classify(startDate, dueDate).chargeDays(toolType));
+    }
+
+    /**
+     * Splits the days between the start and due date (both inclusive) into weekdays, weekends and holidays
+     * @param startDate first day of the period
+     * @param dueDate   last day of the period
+     * @return the day counts, empty when the due date is before the start date
+     */
+    public static DayCounts classify(LocalDate startDate, LocalDate dueDate) {
+        return classify(startDate, dueDate, HolidayCalendar.DEFAULT);
+    }
+
+    /**
+     * Splits the days between the start and due date (both inclusive) into weekdays, weekends and holidays
+     * @param startDate first day of the period
+     * @param dueDate   last day of the period
+     * @param calendar  the holidays to apply
+     * @return the day counts, empty when the due date is before the start date
+     */
+    public static DayCounts classify(LocalDate startDate, LocalDate dueDate, HolidayCalendar calendar) {
+        long totalDays = dueDate.toEpochDay() - startDate.toEpochDay() + 1;
+        if (totalDays <= 0) {
+            return DayCounts.EMPTY;
+        }
+
+        long holidayDays = calendar.countHolidays(startDate, dueDate, false);
+        long weekendDays = countWeekendDays(startDate, totalDays) - calendar.countHolidays(startDate, dueDate, true);
+        return new DayCounts(totalDays - weekendDays - holidayDays, weekendDays, holidayDays);
+    }
+
+    /**
+     * Counts Saturdays and Sundays in a period of the given length
+     * @param startDate first day of the period
+     * @param totalDays length of the period in days
+     * @return the number of weekend days
+     */
+    static long countWeekendDays(LocalDate startDate, long totalDays) {
+        long weekendDays = (totalDays / 7) * 2;
+        int remainder = (int) (totalDays % 7);
+        int firstDay = startDate.getDayOfWeek().getValue() - 1;
+        for (int i = 0; i < remainder; i++) {
+            // Monday = 0 ... Saturday = 5, Sunday = 6
+            if ((firstDay + i) % 7 >= 5) {
+                weekendDays++;
+            }
+        }
+        return weekendDays;
+    }
+}
@@ -0,0 +1,151 @@
+package com.qczhang18.rental.util;
+
+import com.qczhang18.rental.model.Type;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cumulative chargeable-day counts keyed by epoch day over a fixed horizon.
+ * A count for a period inside the horizon is two array reads and a subtraction;
+ * periods reaching outside the horizon fall back to {@link ChargeDayCounter}.
+ * <p>
+ * Arrays are built lazily per combination of weekday, weekend and holiday charge flags,
+ * so tool types charging the same days share one array.
+ */
+public class ChargeDayIndex {
+
+    public static final int DEFAULT_START_YEAR = 1970;
+    public static final int DEFAULT_END_YEAR = 2100;
+
+    private static final int WEEKDAY = 1;
+    private static final int WEEKEND = 2;
+    private static final int HOLIDAY = 4;
+
+    private final HolidayCalendar calendar;
+    private final long firstDay;
+    private final long lastDay;
+    private final AtomicReferenceArray<int[]> cumulativeCounts = new AtomicReferenceArray<>(8);
+
+    /**
+     * @param calendar  the holidays to apply
+     * @param startYear first year of the horizon
+     * @param endYear   last year of the horizon
+     */
+    public ChargeDayIndex(HolidayCalendar calendar, int startYear, int endYear) {
+        if (endYear < startYear) {
+            throw new IllegalArgumentException("endYear " + endYear + " is before startYear " + startYear);
+        }
+        this.calendar = calendar;
+        this.firstDay = LocalDate.of(startYear, 1, 1).toEpochDay();
+        this.lastDay = LocalDate.of(endYear, 12, 31).toEpochDay();
+    }
+
+    public ChargeDayIndex() {
+        this(HolidayCalendar.DEFAULT, DEFAULT_START_YEAR, DEFAULT_END_YEAR);
+    }
+
+    public HolidayCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Counts the days between the start and due date (both inclusive) the tool type is charged for
+     * @param startDate first day of the rental period
+     * @param dueDate   last day of the rental period
+     * @param toolType  the type of tool
+     * @return the number of charge days
+     */
+    public int countChargeDays(LocalDate startDate, LocalDate dueDate, Type toolType) {
+        long start = startDate.toEpochDay();
+        long due = dueDate.toEpochDay();
+        if (due < start) {
+            return 0;
+        }
+        if (start < firstDay || due > lastDay) {
+            return Math.toIntExact(ChargeDayCounter.classify(startDate, dueDate, calendar).chargeDays(toolType));
+        }
+
+        int flags = flagsOf(toolType);
+        if (flags == 0) {
+            return 0;
+        }
+        int[] cumulative = cumulativeCounts(flags);
+        return cumulative[(int) (due - firstDay) + 1] - cumulative[(int) (start - firstDay)];
+    }
+
+    /**
+     * Counts the charge days of a rental of fixed length for every checkout date in a window.
+     * The first rental period is counted like {@link #countChargeDays}; each following one slides
+     * the period by a day, adding its new due date and dropping the previous first day, so the
+     * cost is linear in the window length wherever the window lies.
+     * @param firstCheckout first checkout date of the window
+     * @param lastCheckout  last checkout date of the window
+     * @param rentalDays    length of the rental, charged from the day after checkout
+     * @param toolType      the type of tool
+     * @return the charge days for each checkout date in order
+     */
+    public int[] countChargeDaysByCheckout(LocalDate firstCheckout, LocalDate lastCheckout, int rentalDays, Type toolType) {
+        int windowDays = Math.toIntExact(lastCheckout.toEpochDay() - firstCheckout.toEpochDay() + 1);
+        if (windowDays <= 0) {
+            return new int[0];
+        }
+        int flags = flagsOf(toolType);
+        int[] counts = new int[windowDays];
+
+        LocalDate firstDay = firstCheckout.plusDays(1);
+        LocalDate dueDate = firstCheckout.plusDays(rentalDays);
+        int count = countChargeDays(firstDay, dueDate, toolType);
+        counts[0] = count;
+        for (int i = 1; i < windowDays; i++) {
+            dueDate = dueDate.plusDays(1);
+            count += charged(dueDate, flags) - charged(firstDay, flags);
+            firstDay = firstDay.plusDays(1);
+            counts[i] = count;
+        }
+        return counts;
+    }
+
+    private int charged(LocalDate date, int flags) {
+        return (flags & dayFlag(date)) != 0 ? 1 : 0;
+    }
+
+    private int dayFlag(LocalDate date) {
+        if (calendar.isHoliday(date)) {
+            return HOLIDAY;
+        }
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return WEEKEND;
+        }
+        return WEEKDAY;
+    }
+
+    private int[] cumulativeCounts(int flags) {
+        int[] cumulative = cumulativeCounts.get(flags);
+        if (cumulative == null) {
+            // Concurrent builders produce identical arrays, keep whichever is published first
+            cumulative = build(flags);
+            if (!cumulativeCounts.compareAndSet(flags, null, cumulative)) {
+                cumulative = cumulativeCounts.get(flags);
+            }
+        }
+        return cumulative;
+    }
+
+    private int[] build(int flags) {
+        int days = (int) (lastDay - firstDay + 1);
+        int[] cumulative = new int[days + 1];
+        LocalDate date = LocalDate.ofEpochDay(firstDay);
+        for (int i = 0; i < days; i++, date = date.plusDays(1)) {
+            cumulative[i + 1] = cumulative[i] + charged(date, flags);
+        }
+        return cumulative;
+    }
+
+    private static int flagsOf(Type toolType) {
+        return (toolType.isWeekdayCharge() ? WEEKDAY : 0)
+                | (toolType.isWeekendCharge() ? WEEKEND : 0)
+                | (toolType.isHolidayCharge() ? HOLIDAY : 0);
+    }
+}
@@ -0,0 +1,348 @@
+package com.qczhang18.rental.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Observed holidays materialized once per year into a day-of-year bitset.
+ * Years inside the bounded range are built lazily and cached, so a holiday check
+ * is a single bit test without allocation.
+ * <p>
+ * Dates and weekdays repeat every 400 years, the Gregorian cycle, so recurring rules observe the
+ * same days in any two years 400 years apart. Calendars built from rules therefore also cache the
+ * 400 positions of the cycle for years outside the range and count full years there in closed form,
+ * whatever the length of the period. Only the years of one-off holidays outside the range, and every
+ * such year of a calendar built from a function, are built on demand.
+ */
+public class HolidayCalendar {
+
+    public static final int DEFAULT_MIN_YEAR = 1900;
+    public static final int DEFAULT_MAX_YEAR = 2199;
+
+    /**
+     * Independence Day (observed) and Labor Day
+     */
+    public static final HolidayCalendar DEFAULT = new HolidayCalendar(HolidayRule.US, DEFAULT_MIN_YEAR, DEFAULT_MAX_YEAR);
+
+    // Year layout: 6 words of day-of-year bits, then the day of week of January 1st (Monday = 0)
+    private static final int WORDS = 6;
+    private static final int JANUARY_FIRST = WORDS;
+    private static final int YEAR_LENGTH = WORDS + 1;
+
+    private static final int CYCLE_YEARS = 400;
+    // A year at position 0 of the cycle
+    private static final int CYCLE_START = 2000;
+
+    /**
+     * Weekend day-of-year bits, indexed by the day of week of January 1st
+     */
+    private static final long[][] WEEKEND_MASKS = new long[7][WORDS];
+
+    static {
+        for (int januaryFirst = 0; januaryFirst < 7; januaryFirst++) {
+            for (int day = 0; day < 366; day++) {
+                if ((januaryFirst + day) % 7 >= 5) {
+                    WEEKEND_MASKS[januaryFirst][day >>> 6] |= 1L << day;
+                }
+            }
+        }
+    }
+
+    private final IntFunction<? extends Collection<LocalDate>> holidaysOfYear;
+    private final List<HolidayRule> rules;
+    private final String version;
+    private final int minYear;
+    private final int maxYear;
+    private final AtomicReferenceArray<long[]> years;
+
+    // Rules other than one-offs, or null for a calendar built from a function
+    private final List<HolidayRule> recurringRules;
+    private final Set<Integer> oneOffYears;
+    // Recurring holidays by position in the cycle, floorMod(year, 400)
+    private final AtomicReferenceArray<long[]> cycleYears = new AtomicReferenceArray<>(CYCLE_YEARS);
+
+    // Cumulative holiday counts over the cached range, built the first time a period spans full years
+    private volatile long[][] cumulativeCounts;
+    // Cumulative recurring holiday counts over the cycle, built the first time a period spans full years outside the range
+    private volatile long[][] cycleCounts;
+
+    /**
+     * @param holidaysOfYear the observed holidays of a year; dates outside that year are ignored
+     * @param minYear        first year to cache
+     * @param maxYear        last year to cache
+     */
+    public HolidayCalendar(IntFunction<? extends Collection<LocalDate>> holidaysOfYear, int minYear, int maxYear) {
+        this(holidaysOfYear, null, minYear, maxYear);
+    }
+
+    /**
+     * @param rules   the holidays
+     * @param minYear first year to cache
+     * @param maxYear last year to cache
+     */
+    public HolidayCalendar(List<HolidayRule> rules, int minYear, int maxYear) {
+        this(year -> observedDates(rules, year), List.copyOf(rules), minYear, maxYear);
+    }
+
+    private HolidayCalendar(IntFunction<? extends Collection<LocalDate>> holidaysOfYear, List<HolidayRule> rules,
+                            int minYear, int maxYear) {
+        if (maxYear < minYear) {
+            throw new IllegalArgumentException("maxYear " + maxYear + " is before minYear " + minYear);
+        }
+        this.holidaysOfYear = holidaysOfYear;
+        this.rules = rules != null ? rules : List.of();
+        // A function cannot be compared, so such a calendar only ever matches itself
+        this.version = rules != null ? digest(rules.toString()) : "@" + Integer.toHexString(System.identityHashCode(this));
+        this.recurringRules = rules != null
+                ? rules.stream().filter(rule -> !(rule instanceof HolidayRule.OneOff)).toList()
+                : null;
+        this.oneOffYears = rules != null
+                ? rules.stream()
+                        .filter(HolidayRule.OneOff.class::isInstance)
+                        .map(rule -> ((HolidayRule.OneOff) rule).date().getYear())
+                        .collect(Collectors.toUnmodifiableSet())
+                : Set.of();
+        this.minYear = minYear;
+        this.maxYear = maxYear;
+        this.years = new AtomicReferenceArray<>(maxYear - minYear + 1);
+    }
+
+    /**
+     * Checks if a given date is an observed holiday
+     * @param date the date to check
+     * @return true if the date is a holiday
+     */
+    public boolean isHoliday(LocalDate date) {
+        long[] year = yearBits(date.getYear());
+        int day = date.getDayOfYear() - 1;
+        return (year[day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * Identifies the holidays of this calendar. Calendars built from equal rules have the same
+     * version in every process, so it can be handed out to clients and caches; it changes
+     * whenever a rule is added, removed or edited.
+     * @return the version of the holiday rules
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Names the holiday observed on a date. Evaluates the rules, so it is meant for
+     * explaining a charge rather than pricing.
+     * @param date the date
+     * @return the name of the first rule observed on the date, "Holiday" for calendars
+     * not built from rules, or null when the date is not a holiday
+     */
+    public String holidayName(LocalDate date) {
+        if (!isHoliday(date)) {
+            return null;
+        }
+        for (HolidayRule rule : rules) {
+            for (int year = date.getYear() - 1; year <= date.getYear() + 1; year++) {
+                if (date.equals(rule.observedDate(year))) {
+                    return rule.name();
+                }
+            }
+        }
+        return "Holiday";
+    }
+
+    /**
+     * Counts holidays between two dates (both inclusive)
+     * @param from        first day of the period
+     * @param to          last day of the period
+     * @param weekendOnly only count holidays falling on a Saturday or Sunday
+     * @return the number of holidays, 0 when to is before from
+     */
+    public long countHolidays(LocalDate from, LocalDate to, boolean weekendOnly) {
+        if (to.isBefore(from)) {
+            return 0;
+        }
+        int firstYear = from.getYear();
+        int lastYear = to.getYear();
+        if (firstYear == lastYear) {
+            return countInYear(yearBits(firstYear), from.getDayOfYear() - 1, to.getDayOfYear() - 1, weekendOnly);
+        }
+        return countInYear(yearBits(firstYear), from.getDayOfYear() - 1, 365, weekendOnly)
+                + countFullYears(firstYear + 1, lastYear - 1, weekendOnly)
+                + countInYear(yearBits(lastYear), 0, to.getDayOfYear() - 1, weekendOnly);
+    }
+
+    private long countFullYears(int firstYear, int lastYear, boolean weekendOnly) {
+        // Years before the cached range
+        long count = countUncachedYears(firstYear, Math.min(lastYear, minYear - 1), weekendOnly);
+
+        // Years inside the cached range, from the cumulative counts
+        int firstCached = Math.max(firstYear, minYear);
+        int lastCached = Math.min(lastYear, maxYear);
+        if (firstCached <= lastCached) {
+            long[] cumulative = cumulativeCounts()[weekendOnly ? 1 : 0];
+            count += cumulative[lastCached - minYear + 1] - cumulative[firstCached - minYear];
+        }
+
+        // Years after the cached range
+        return count + countUncachedYears(Math.max(firstYear, maxYear + 1), lastYear, weekendOnly);
+    }
+
+    private long countUncachedYears(int firstYear, int lastYear, boolean weekendOnly) {
+        if (firstYear > lastYear) {
+            return 0;
+        }
+        long count = 0;
+        if (recurringRules == null) {
+            for (int year = firstYear; year <= lastYear; year++) {
+                count += countInYear(buildYear(year, holidaysOfYear), 0, 365, weekendOnly);
+            }
+            return count;
+        }
+        // Whole cycles and the remainder, from the cumulative counts over the cycle
+        count = recurringBefore(lastYear + 1, weekendOnly) - recurringBefore(firstYear, weekendOnly);
+        // A one-off holiday adds to the recurring ones in its year
+        for (int year : oneOffYears) {
+            if (year >= firstYear && year <= lastYear) {
+                count += countInYear(buildYear(year, holidaysOfYear), 0, 365, weekendOnly)
+                        - countInYear(cycleYearBits(year), 0, 365, weekendOnly);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the recurring holidays of the years before the given one, relative to year 0
+     */
+    private long recurringBefore(int year, boolean weekendOnly) {
+        long[] cumulative = cycleCounts()[weekendOnly ? 1 : 0];
+        return Math.floorDiv(year, CYCLE_YEARS) * cumulative[CYCLE_YEARS]
+                + cumulative[Math.floorMod(year, CYCLE_YEARS)];
+    }
+
+    private static long countInYear(long[] bits, int fromDay, int toDay, boolean weekendOnly) {
+        long[] weekend = WEEKEND_MASKS[(int) bits[JANUARY_FIRST]];
+        long count = 0;
+        int firstWord = fromDay >>> 6;
+        int lastWord = toDay >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long mask = -1L;
+            if (word == firstWord) {
+                mask &= -1L << (fromDay & 63);
+            }
+            if (word == lastWord) {
+                mask &= -1L >>> (63 - (toDay & 63));
+            }
+            long holidays = bits[word] & mask;
+            if (weekendOnly) {
+                holidays &= weekend[word];
+            }
+            count += Long.bitCount(holidays);
+        }
+        return count;
+    }
+
+    private long[][] cumulativeCounts() {
+        long[][] counts = cumulativeCounts;
+        if (counts == null) {
+            int size = maxYear - minYear + 1;
+            counts = new long[2][size + 1];
+            for (int i = 0; i < size; i++) {
+                long[] bits = yearBits(minYear + i);
+                counts[0][i + 1] = counts[0][i] + countInYear(bits, 0, 365, false);
+                counts[1][i + 1] = counts[1][i] + countInYear(bits, 0, 365, true);
+            }
+            cumulativeCounts = counts;
+        }
+        return counts;
+    }
+
+    private long[][] cycleCounts() {
+        long[][] counts = cycleCounts;
+        if (counts == null) {
+            counts = new long[2][CYCLE_YEARS + 1];
+            for (int i = 0; i < CYCLE_YEARS; i++) {
+                long[] bits = cycleYearBits(i);
+                counts[0][i + 1] = counts[0][i] + countInYear(bits, 0, 365, false);
+                counts[1][i + 1] = counts[1][i] + countInYear(bits, 0, 365, true);
+            }
+            cycleCounts = counts;
+        }
+        return counts;
+    }
+
+    private long[] yearBits(int year) {
+        if (year >= minYear && year <= maxYear) {
+            return cached(years, year - minYear, year, holidaysOfYear);
+        }
+        if (recurringRules == null || oneOffYears.contains(year)) {
+            return buildYear(year, holidaysOfYear);
+        }
+        return cycleYearBits(year);
+    }
+
+    /**
+     * Returns the recurring holidays of every year at the same position in the cycle as the given one
+     */
+    private long[] cycleYearBits(int year) {
+        int position = Math.floorMod(year, CYCLE_YEARS);
+        return cached(cycleYears, position, CYCLE_START + position, cycleYear -> observedDates(recurringRules, cycleYear));
+    }
+
+    private static long[] cached(AtomicReferenceArray<long[]> cache, int index, int year,
+                                 IntFunction<? extends Collection<LocalDate>> holidaysOfYear) {
+        long[] bits = cache.get(index);
+        if (bits == null) {
+            // Concurrent builders produce identical bitsets, keep whichever is published first
+            bits = buildYear(year, holidaysOfYear);
+            if (!cache.compareAndSet(index, null, bits)) {
+                bits = cache.get(index);
+            }
+        }
+        return bits;
+    }
+
+    private static List<LocalDate> observedDates(List<HolidayRule> rules, int year) {
+        // Observance can move a holiday across New Year, so the neighbouring years are evaluated too
+        List<LocalDate> dates = new ArrayList<>();
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                LocalDate date = rule.observedDate(ruleYear);
+                if (date != null && date.getYear() == year) {
+                    dates.add(date);
+                }
+            }
+        }
+        return dates;
+    }
+
+    private static long[] buildYear(int year, IntFunction<? extends Collection<LocalDate>> holidaysOfYear) {
+        long[] bits = new long[YEAR_LENGTH];
+        for (LocalDate holiday : holidaysOfYear.apply(year)) {
+            if (holiday.getYear() == year) {
+                int day = holiday.getDayOfYear() - 1;
+                bits[day >>> 6] |= 1L << day;
+            }
+        }
+        bits[JANUARY_FIRST] = LocalDate.of(year, 1, 1).getDayOfWeek().getValue() - 1;
+        return bits;
+    }
+
+    private static String digest(String rules) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rules.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, 8));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
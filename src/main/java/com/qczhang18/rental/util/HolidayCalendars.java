@@ -0,0 +1,59 @@
+package com.qczhang18.rental.util;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The named holiday calendars a request can be priced with, each with its own charge day index
+ */
+public class HolidayCalendars {
+
+    public static final String DEFAULT_NAME = "US";
+
+    private final Map<String, ChargeDayIndex> indexes;
+    private final String defaultName;
+
+    /**
+     * @param indexes     charge day index of every calendar by name
+     * @param defaultName the calendar used when a request does not name one
+     */
+    public HolidayCalendars(Map<String, ChargeDayIndex> indexes, String defaultName) {
+        if (!indexes.containsKey(defaultName)) {
+            throw new IllegalArgumentException("Default holiday calendar \"" + defaultName + "\" is not defined");
+        }
+        this.indexes = Map.copyOf(indexes);
+        this.defaultName = defaultName;
+    }
+
+    /**
+     * Only the built-in US calendar
+     */
+    public HolidayCalendars() {
+        this(Map.of(DEFAULT_NAME, new ChargeDayIndex()), DEFAULT_NAME);
+    }
+
+    /**
+     * @param name the calendar name, null for the default calendar
+     * @return the charge day index of the calendar, empty if there is no calendar with the name
+     */
+    public Optional<ChargeDayIndex> find(String name) {
+        return Optional.ofNullable(indexes.get(resolve(name)));
+    }
+
+    /**
+     * @param name the calendar name, null for the default calendar
+     * @return the name of the calendar a request naming it is priced with
+     */
+    public String resolve(String name) {
+        return name == null ? defaultName : name;
+    }
+
+    public String getDefaultName() {
+        return defaultName;
+    }
+
+    public Set<String> getNames() {
+        return indexes.keySet();
+    }
+}
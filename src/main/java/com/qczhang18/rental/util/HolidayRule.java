@@ -0,0 +1,119 @@
+package com.qczhang18.rental.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * How a holiday's date is determined each year.
+ * Rules are compiled into a {@link HolidayCalendar}, so the number of rules only affects
+ * building a year's lookup table, not checking or counting days.
+ */
+public sealed interface HolidayRule {
+
+    /**
+     * July 4th, a Saturday observed on the Friday before and a Sunday on the Monday after
+     */
+    HolidayRule INDEPENDENCE_DAY = new FixedDate("Independence Day", MonthDay.of(Month.JULY, 4), Observance.NEAREST_WEEKDAY);
+
+    /**
+     * The first Monday in September
+     */
+    HolidayRule LABOR_DAY = new NthWeekday("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1);
+
+    /**
+     * Independence Day (observed) and Labor Day
+     */
+    List<HolidayRule> US = List.of(INDEPENDENCE_DAY, LABOR_DAY);
+
+    String name();
+
+    /**
+     * Returns the date the holiday of the given year is observed on,
+     * which may fall into the year before or after
+     *
+     * @param year the year
+     * @return the observed date, or null when the holiday does not occur that year
+     */
+    LocalDate observedDate(int year);
+
+    /**
+     * Moves a holiday falling on a weekend to a weekday
+     */
+    enum Observance {
+        /**
+         * Observed on the day itself
+         */
+        NONE,
+        /**
+         * Saturday moves to the Friday before, Sunday to the Monday after
+         */
+        NEAREST_WEEKDAY,
+        /**
+         * Saturday and Sunday move to the Monday after
+         */
+        NEXT_WEEKDAY;
+
+        LocalDate apply(LocalDate date) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            return switch (this) {
+                case NONE -> date;
+                case NEAREST_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.minusDays(1)
+                        : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+                case NEXT_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.plusDays(2)
+                        : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+            };
+        }
+    }
+
+    /**
+     * The same day every year, e.g. July 4th. February 29th only occurs in leap years.
+     */
+    record FixedDate(String name, MonthDay date, Observance observance) implements HolidayRule {
+        @Override
+        public LocalDate observedDate(int year) {
+            return date.isValidYear(year) ? observance.apply(date.atYear(year)) : null;
+        }
+    }
+
+    /**
+     * The nth given weekday of a month, e.g. the first Monday in September
+     */
+    record NthWeekday(String name, Month month, DayOfWeek dayOfWeek, int nth) implements HolidayRule {
+        public NthWeekday {
+            if (nth < 1 || nth > 5) {
+                throw new IllegalArgumentException("nth must be between 1 and 5, was " + nth);
+            }
+        }
+
+        @Override
+        public LocalDate observedDate(int year) {
+            LocalDate date = LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(nth, dayOfWeek));
+            // A fifth weekday that does not exist rolls into the next month
+            return date.getMonth() == month ? date : null;
+        }
+    }
+
+    /**
+     * The last given weekday of a month, e.g. the last Monday in May
+     */
+    record LastWeekday(String name, Month month, DayOfWeek dayOfWeek) implements HolidayRule {
+        @Override
+        public LocalDate observedDate(int year) {
+            return LocalDate.of(year, month, 1).with(TemporalAdjusters.lastInMonth(dayOfWeek));
+        }
+    }
+
+    /**
+     * A single date, e.g. a day of national mourning
+     */
+    record OneOff(String name, LocalDate date) implements HolidayRule {
+        @Override
+        public LocalDate observedDate(int year) {
+            return date.getYear() == year ? date : null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.qczhang18.rental.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on long cents.
+ * Results match BigDecimal amounts with a scale of 2 and HALF_UP rounding, without allocating;
+ * amounts are converted to BigDecimal only where they leave the pricing engine.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents
+     * @param amount the amount, in whole cents
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount has a fraction of a cent or does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to an amount with a scale of 2
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Multiplies an amount by a quantity
+     * @param cents    the amount in cents
+     * @param quantity the quantity
+     * @return the product in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long multiply(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Takes a percentage of an amount, rounding half a cent away from zero (HALF_UP)
+     * @param cents   the amount in cents
+     * @param percent the percentage
+     * @return the percentage of the amount in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long percentage(long cents, int percent) {
+        long product = Math.multiplyExact(cents, percent);
+        long quotient = product / 100;
+        long remainder = product % 100;
+        if (Math.abs(remainder) >= 50) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,23 @@
+package com.qczhang18.rental.warmup;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Outcome of the startup warm-up
+ */
+@Value
+public class WarmupReport {
+    Duration duration;
+    int rounds;
+    long requests;
+    /**
+     * Requests checked out and journaled, the rest were refused as invalid or unavailable
+     */
+    long checkouts;
+    boolean converged;
+    long p50Nanos;
+    long p99Nanos;
+    long maxNanos;
+}
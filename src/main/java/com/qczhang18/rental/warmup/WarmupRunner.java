@@ -0,0 +1,252 @@
+package com.qczhang18.rental.warmup;
+
+import com.qczhang18.rental.audit.AuditLog;
+import com.qczhang18.rental.controller.RentalController;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.BatchPricingService;
+import com.qczhang18.rental.service.QuoteCache;
+import com.qczhang18.rental.service.RentalService;
+import com.qczhang18.rental.util.HolidayCalendars;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives a synthetic workload through request deserialization, {@code POST /rent} and response
+ * serialization at startup, until the per-round time stops improving and the JIT has settled.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, so the readiness probe keeps reporting REFUSING_TRAFFIC
+ * until it returns; Spring Boot switches readiness to ACCEPTING_TRAFFIC once all runners complete.
+ * <p>
+ * Requests are checked out through a {@link RentalController} like real ones, so reserving inventory,
+ * journaling, metrics and the audit log are compiled along with pricing. The controller and the
+ * service behind it are throwaway instances wired to their own quote cache, inventory, meter registry,
+ * and journal and audit log in a temporary directory, so the warm-up never books a tool, takes an
+ * agreement id or shows up in the metrics of the running service.
+ */
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    /**
+     * Rounds that must agree within the tolerance before the JIT counts as settled
+     */
+    private static final int STABLE_ROUNDS = 3;
+    private static final int MIN_ROUNDS = 5;
+
+    /**
+     * Distinct requests cycled through, one per checkout date from 2000 on
+     */
+    private static final int WORKLOAD_SIZE = 36_500;
+    private static final LocalDate FIRST_CHECKOUT_DATE = LocalDate.of(2000, 1, 1);
+
+    /**
+     * Units of every tool, inventory is fresh every round so rounds book alike
+     */
+    private static final int UNITS = 10;
+
+    private final HolidayCalendars holidayCalendars;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int roundSize;
+    private final double tolerance;
+
+    @Getter
+    private volatile WarmupReport report;
+
+    @Autowired
+    public WarmupRunner(HolidayCalendars holidayCalendars,
+                        ObjectMapper objectMapper,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${rental.warmup.enabled:true}") boolean enabled,
+                        @Value("${rental.warmup.max-duration:30s}") Duration maxDuration,
+                        @Value("${rental.warmup.round-size:2000}") int roundSize,
+                        @Value("${rental.warmup.tolerance:0.05}") double tolerance) {
+        this.holidayCalendars = holidayCalendars;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.roundSize = roundSize;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        report = warmUp();
+        log.info("Warm-up {} in {} ms: {} rounds, {} requests, {} checkouts; post-warm-up latency p50={}us p99={}us max={}us",
+                report.isConverged() ? "converged" : "hit its time limit",
+                report.getDuration().toMillis(), report.getRounds(), report.getRequests(), report.getCheckouts(),
+                report.getP50Nanos() / 1000, report.getP99Nanos() / 1000, report.getMaxNanos() / 1000);
+    }
+
+    /**
+     * Runs rounds of the workload until the last rounds agree within the tolerance or the time limit
+     * is hit, then measures one more round request by request
+     *
+     * @return the warm-up report
+     */
+    public WarmupReport warmUp() {
+        List<byte[]> workload = workload();
+        int next = 0;
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+
+        Path directory = null;
+        AgreementJournal agreementJournal = null;
+        AuditLog auditLog = null;
+        try {
+            directory = Files.createTempDirectory("rental-warmup");
+            MeterRegistry registry = new SimpleMeterRegistry();
+            agreementJournal = new AgreementJournal(true, directory.resolve("journal").toString(),
+                    DataSize.ofMegabytes(4), Duration.ofMillis(200));
+            auditLog = new AuditLog(true, directory.resolve("audit").toString(), 8192, 256, AuditLog.Overflow.DROP,
+                    DataSize.ofMegabytes(4), 1, Duration.ofMillis(100), objectMapper, registry);
+            Backend backend = new Backend(new RentalMetrics(registry), new QuoteCache(100_000, Duration.ofMinutes(10), registry),
+                    agreementJournal, auditLog);
+
+            List<Long> roundTimes = new ArrayList<>();
+            boolean converged = false;
+            while (!converged && System.nanoTime() < deadline) {
+                try (Round round = round(backend)) {
+                    long roundStart = System.nanoTime();
+                    for (int i = 0; i < roundSize; i++) {
+                        execute(round.controller(), workload.get(next++ % workload.size()));
+                    }
+                    roundTimes.add(System.nanoTime() - roundStart);
+                }
+                converged = roundTimes.size() >= MIN_ROUNDS && isStable(roundTimes);
+            }
+            Duration duration = Duration.ofNanos(System.nanoTime() - started);
+
+            long[] latencies = new long[roundSize];
+            try (Round round = round(backend)) {
+                for (int i = 0; i < roundSize; i++) {
+                    long requestStart = System.nanoTime();
+                    execute(round.controller(), workload.get(next++ % workload.size()));
+                    latencies[i] = System.nanoTime() - requestStart;
+                }
+            }
+            Arrays.sort(latencies);
+
+            return new WarmupReport(duration, roundTimes.size(), (long) roundTimes.size() * roundSize + roundSize,
+                    agreementJournal.getLastId(), converged,
+                    latencies[latencies.length / 2],
+                    latencies[(int) Math.min(latencies.length - 1, Math.ceil(latencies.length * 0.99) - 1)],
+                    latencies[latencies.length - 1]);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            if (auditLog != null) {
+                auditLog.close();
+            }
+            if (agreementJournal != null) {
+                agreementJournal.close();
+            }
+            if (directory != null) {
+                try {
+                    FileSystemUtils.deleteRecursively(directory);
+                } catch (IOException exception) {
+                    log.warn("Could not delete the warm-up directory {}", directory, exception);
+                }
+            }
+        }
+    }
+
+    private void execute(RentalController controller, byte[] requestJson) {
+        RentalRequest rentalRequest = objectMapper.readValue(requestJson, RentalRequest.class);
+        // One request in eight builds an explain trace as well
+        boolean explain = (rentalRequest.getRentalDay() & 7) == 0;
+        RentalResponse rentalResponse = controller.rental(rentalRequest, explain, null);
+        objectMapper.writeValueAsBytes(rentalResponse);
+    }
+
+    /**
+     * The throwaway state requests are checked out against, shared by all rounds except the inventory
+     */
+    private record Backend(RentalMetrics metrics, QuoteCache quoteCache, AgreementJournal agreementJournal,
+                           AuditLog auditLog) {
+    }
+
+    /**
+     * A controller over a fresh inventory for one round
+     */
+    private record Round(RentalController controller, BatchPricingService batchPricingService) implements AutoCloseable {
+        @Override
+        public void close() {
+            batchPricingService.shutdown();
+        }
+    }
+
+    private Round round(Backend backend) {
+        RentalService rentalService = new RentalService(holidayCalendars, backend.metrics(), backend.quoteCache(),
+                backend.agreementJournal(), new InventoryService(Map.of(), UNITS), backend.auditLog());
+        BatchPricingService batchPricingService = new BatchPricingService(rentalService, 1, 1);
+        return new Round(new RentalController(rentalService, batchPricingService, objectMapper), batchPricingService);
+    }
+
+    private boolean isStable(List<Long> roundTimes) {
+        List<Long> last = roundTimes.subList(roundTimes.size() - STABLE_ROUNDS, roundTimes.size());
+        long min = last.stream().mapToLong(Long::longValue).min().orElseThrow();
+        long max = last.stream().mapToLong(Long::longValue).max().orElseThrow();
+        return max - min <= min * tolerance;
+    }
+
+    /**
+     * Every tool over checkout dates spread across a century, so quotes miss the cache and every
+     * holiday case (Independence Day on a weekday, Saturday or Sunday, Labor Day) is priced,
+     * over short and long rentals plus invalid discounts
+     */
+    private List<byte[]> workload() {
+        int[] rentalDays = {1, 3, 4, 5, 9, 16, 30, 365, 5000};
+        int[] discounts = {0, 10, 25, 50, 100, 101};
+        Tool[] tools = Tool.values();
+
+        List<byte[]> workload = new ArrayList<>(WORKLOAD_SIZE);
+        for (int i = 0; i < WORKLOAD_SIZE; i++) {
+            RentalRequest rentalRequest = RentalRequest.builder()
+                    .tool(tools[i % tools.length])
+                    .checkoutDate(FIRST_CHECKOUT_DATE.plusDays(i))
+                    .rentalDay(rentalDays[i % rentalDays.length])
+                    .discountPercent(discounts[i % discounts.length])
+                    .build();
+            workload.add(objectMapper.writeValueAsBytes(rentalRequest));
+        }
+        return workload;
+    }
+}
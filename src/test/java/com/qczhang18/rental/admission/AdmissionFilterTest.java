@@ -0,0 +1,99 @@
+package com.qczhang18.rental.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for AdmissionFilter
+ * Verifies 429 per client, 503 from the bulkhead on the pricing endpoints and the rejection meters
+ */
+class AdmissionFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead(1, 0, Duration.ofMillis(10), registry);
+    private final AdmissionFilter filter = new AdmissionFilter(
+            new RateLimiter(true, 1, 2, 100, registry), bulkhead, JsonMapper.builder().build(), registry);
+
+    private MockHttpServletResponse send(String path, String apiKey, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader(AdmissionFilter.API_KEY_HEADER, apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testClientOverItsRateGets429() throws Exception {
+        assertEquals(200, send("/rent", "client-a", "10.0.0.1").getStatus());
+        assertEquals(200, send("/rent", "client-a", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse refused = send("/rent", "client-a", "10.0.0.1");
+
+        assertEquals(429, refused.getStatus());
+        assertEquals("1", refused.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"message\":\"too many requests, please retry later : Rate limit exceeded \"}", refused.getContentAsString());
+        assertEquals(1, registry.get("rental.admission.rejected").tag("reason", "rate_limited").counter().count());
+    }
+
+    @Test
+    void testClientsHaveTheirOwnBuckets() throws Exception {
+        send("/rent", "client-a", "10.0.0.1");
+        send("/rent", "client-a", "10.0.0.1");
+
+        assertEquals(200, send("/rent", "client-b", "10.0.0.1").getStatus());
+        assertEquals(200, send("/rent", null, "10.0.0.1").getStatus());
+        assertEquals(429, send("/rent", "client-a", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void testFullBulkheadGets503() throws Exception {
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+
+        MockHttpServletResponse refused = send("/quote/optimize", "client-a", "10.0.0.1");
+        MockHttpServletResponse other = send("/availability", "client-a", "10.0.0.1");
+
+        assertEquals(503, refused.getStatus());
+        assertEquals("1", refused.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, registry.get("rental.admission.rejected").tag("reason", "queue_full").counter().count());
+        assertEquals(200, other.getStatus());
+    }
+
+    @Test
+    void testBulkheadIsReleasedAfterTheRequest() throws Exception {
+        send("/rent/cart", "client-a", "10.0.0.1");
+
+        assertEquals(0, bulkhead.active());
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+    }
+
+    @Test
+    void testActuatorIsNeverLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("/actuator/health", "client-a", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void testDisabledRateLimit() throws Exception {
+        AdmissionFilter unlimited = new AdmissionFilter(new RateLimiter(false, 0, 0, 0, registry),
+                new Bulkhead(1, 0, Duration.ofMillis(10), registry), JsonMapper.builder().build(), registry);
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            unlimited.doFilter(new MockHttpServletRequest("POST", "/rent"), response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.qczhang18.rental.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for Bulkhead
+ * Verifies the concurrency limit, the bounded queue and the wait timeout
+ */
+class BulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testAdmitsUpToTheLimit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2, 0, Duration.ofSeconds(1), registry);
+
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+        assertEquals(Bulkhead.Admission.QUEUE_FULL, bulkhead.enter());
+        assertEquals(2, registry.get("rental.admission.bulkhead.active").gauge().value());
+
+        bulkhead.exit();
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+    }
+
+    @Test
+    void testQueuedRequestGetsTheReleasedPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(30), registry);
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.enter());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Bulkhead.Admission> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return bulkhead.enter();
+                } catch (InterruptedException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }, executor);
+            while (bulkhead.queued() == 0) {
+                Thread.yield();
+            }
+
+            // The queue holds one request, the next is shed at once
+            assertEquals(Bulkhead.Admission.QUEUE_FULL, bulkhead.enter());
+
+            bulkhead.exit();
+            assertEquals(Bulkhead.Admission.ADMITTED, waiting.get(10, TimeUnit.SECONDS));
+            assertEquals(0, bulkhead.queued());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testQueuedRequestTimesOut() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 10, Duration.ofMillis(20), registry);
+        bulkhead.enter();
+
+        assertEquals(Bulkhead.Admission.TIMED_OUT, bulkhead.enter());
+        assertEquals(0, bulkhead.queued());
+        assertEquals(1, bulkhead.active());
+    }
+
+    @Test
+    void testDefaultLimitFollowsTheCores() {
+        Bulkhead bulkhead = new Bulkhead(0, 10, Duration.ofMillis(20), registry);
+
+        assertEquals(2 * Runtime.getRuntime().availableProcessors(), bulkhead.getMaxConcurrent());
+    }
+}
@@ -0,0 +1,93 @@
+package com.qczhang18.rental.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for TokenBucket
+ * Verifies the burst, the refill rate and that concurrent takers never exceed the tokens available
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testFullBucketAllowsTheBurst() {
+        TokenBucket bucket = new TokenBucket(SECOND / 10, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryTake(now));
+        }
+        assertEquals(SECOND / 10, bucket.tryTake(now));
+    }
+
+    @Test
+    void testRefillsAtTheRate() {
+        TokenBucket bucket = new TokenBucket(SECOND / 10, 1);
+        long now = -5 * SECOND;
+
+        assertEquals(0, bucket.tryTake(now));
+        assertEquals(SECOND / 20, bucket.tryTake(now + SECOND / 20));
+        assertEquals(0, bucket.tryTake(now + SECOND / 10));
+        assertTrue(bucket.tryTake(now + SECOND / 10) > 0);
+    }
+
+    @Test
+    void testIdleBucketRefillsOnlyUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(SECOND / 10, 3);
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            bucket.tryTake(now);
+        }
+
+        now += 60 * SECOND;
+        int taken = 0;
+        while (bucket.tryTake(now) == 0) {
+            taken++;
+        }
+
+        assertEquals(3, taken);
+    }
+
+    @Test
+    void testConcurrentTakersShareTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(SECOND, 1000);
+        long now = System.nanoTime();
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryTake(now) == 0) {
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1000, taken.get());
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(SECOND, 0));
+    }
+}
@@ -0,0 +1,216 @@
+package com.qczhang18.rental.audit;
+
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.QuoteCache;
+import com.qczhang18.rental.service.RentalService;
+import com.qczhang18.rental.util.HolidayCalendars;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for AuditLog
+ * Verifies events are written as JSON lines, files roll over and the overflow policies
+ */
+class AuditLogTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path directory;
+
+    private AuditLog auditLog(int capacity, AuditLog.Overflow overflow, DataSize maxFileSize) throws IOException {
+        return new AuditLog(true, directory.toString(), capacity, 64, overflow, maxFileSize, 2,
+                Duration.ofMillis(5), objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static AuditEvent event(long id) {
+        return new AuditEvent(Instant.parse("2020-07-02T10:15:30Z"), id, "LADW", 3, LocalDate.of(2020, 7, 2),
+                LocalDate.of(2020, 7, 5), 2, 10, new BigDecimal("3.58"), null);
+    }
+
+    private List<String> lines(Path file) throws IOException {
+        return Files.readAllLines(file);
+    }
+
+    @Test
+    void testWritesOneJsonLinePerEvent() throws IOException {
+        AuditLog auditLog = auditLog(1024, AuditLog.Overflow.BLOCK, DataSize.ofMegabytes(1));
+        for (long id = 1; id <= 1000; id++) {
+            assertTrue(auditLog.publish(event(id)));
+        }
+        auditLog.close();
+
+        List<String> lines = lines(directory.resolve(AuditLog.ACTIVE_FILE));
+        assertEquals(1000, lines.size());
+        assertEquals(1000, auditLog.getWritten());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("agreementId").asLong());
+        assertEquals("LADW", first.get("toolCode").asString());
+        assertEquals("2020-07-05", first.get("dueDate").asString());
+        assertEquals(new BigDecimal("3.58"), first.get("finalCharge").decimalValue());
+        assertFalse(first.has("holidayCalendar"));
+        assertEquals(1000, objectMapper.readTree(lines.get(999)).get("agreementId").asLong());
+    }
+
+    @Test
+    void testRollsOverAndKeepsTheNewestFiles() throws IOException {
+        AuditLog auditLog = auditLog(1024, AuditLog.Overflow.BLOCK, DataSize.ofKilobytes(1));
+        for (long id = 1; id <= 200; id++) {
+            auditLog.publish(event(id));
+        }
+        auditLog.close();
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.sorted().toList();
+        }
+        // Two rolled files plus the active one
+        assertEquals(3, files.size());
+        assertEquals(AuditLog.ACTIVE_FILE, files.get(2).getFileName().toString());
+        List<String> kept = new ArrayList<>();
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 1024);
+            kept.addAll(lines(file));
+        }
+        // The newest events survive, in order
+        assertEquals(200, objectMapper.readTree(kept.get(kept.size() - 1)).get("agreementId").asLong());
+        for (int i = 1; i < kept.size(); i++) {
+            assertEquals(objectMapper.readTree(kept.get(i - 1)).get("agreementId").asLong() + 1,
+                    objectMapper.readTree(kept.get(i)).get("agreementId").asLong());
+        }
+    }
+
+    @Test
+    void testKeepsWritingWhenRollOverFails() throws IOException {
+        AuditLog auditLog = auditLog(1024, AuditLog.Overflow.BLOCK, DataSize.ofKilobytes(1));
+        // A non-empty directory where the first rolled file goes cannot be replaced
+        Path blocked = directory.resolve("audit-0000000001.log");
+        Files.createDirectories(blocked.resolve("occupied"));
+        for (long id = 1; id <= 50; id++) {
+            auditLog.publish(event(id));
+        }
+        awaitWritten(auditLog, 50);
+        assertTrue(Files.size(directory.resolve(AuditLog.ACTIVE_FILE)) > 1024);
+
+        Files.delete(blocked.resolve("occupied"));
+        Files.delete(blocked);
+        for (long id = 51; id <= 100; id++) {
+            auditLog.publish(event(id));
+        }
+        auditLog.close();
+
+        assertEquals(100, auditLog.getWritten());
+        assertEquals(0, auditLog.getDropped());
+        // Rolling over resumed once the way was clear, so the oversized file is gone
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.sorted().toList();
+        }
+        assertEquals(3, files.size());
+        List<String> kept = new ArrayList<>();
+        for (Path file : files) {
+            assertTrue(Files.isRegularFile(file));
+            assertTrue(Files.size(file) <= 1024);
+            kept.addAll(lines(file));
+        }
+        assertEquals(100, objectMapper.readTree(kept.get(kept.size() - 1)).get("agreementId").asLong());
+    }
+
+    private static void awaitWritten(AuditLog auditLog, long events) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (auditLog.getWritten() < events && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(events, auditLog.getWritten());
+    }
+
+    @Test
+    void testBlockingOverflowLosesNothing() throws Exception {
+        AuditLog auditLog = auditLog(2, AuditLog.Overflow.BLOCK, DataSize.ofMegabytes(10));
+
+        publishConcurrently(auditLog, 4, 2500);
+        auditLog.close();
+
+        assertEquals(10_000, auditLog.getWritten());
+        assertEquals(0, auditLog.getDropped());
+        assertEquals(10_000, lines(directory.resolve(AuditLog.ACTIVE_FILE)).size());
+    }
+
+    @Test
+    void testDroppingOverflowCountsEveryEvent() throws Exception {
+        AuditLog auditLog = auditLog(2, AuditLog.Overflow.DROP, DataSize.ofMegabytes(10));
+
+        publishConcurrently(auditLog, 4, 2500);
+        auditLog.close();
+
+        assertEquals(10_000, auditLog.getWritten() + auditLog.getDropped());
+        assertEquals(auditLog.getWritten(), lines(directory.resolve(AuditLog.ACTIVE_FILE)).size());
+    }
+
+    @Test
+    void testCheckoutIsAudited() throws IOException {
+        AuditLog auditLog = auditLog(1024, AuditLog.Overflow.BLOCK, DataSize.ofMegabytes(1));
+        RentalService service = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                AgreementJournal.disabled(), InventoryService.unlimited(), auditLog);
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(4)
+                .discountPercent(50)
+                .build();
+
+        service.process(request);
+        // Quotes are not checkouts
+        service.quote(request, false);
+        auditLog.close();
+
+        List<String> lines = lines(directory.resolve(AuditLog.ACTIVE_FILE));
+        assertEquals(1, lines.size());
+        JsonNode line = objectMapper.readTree(lines.get(0));
+        assertEquals("JAKR", line.get("toolCode").asString());
+        assertEquals(1, line.get("chargeDays").asInt());
+        assertFalse(line.has("agreementId"));
+    }
+
+    private static void publishConcurrently(AuditLog auditLog, int threads, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    auditLog.publish(event(i));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,143 @@
+package com.qczhang18.rental.catalog;
+
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.service.QuoteCache;
+import com.qczhang18.rental.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for CatalogService
+ * Verifies catalog files are loaded, reloaded on change and rejected as a whole when invalid
+ */
+class CatalogServiceTest {
+
+    private static final String CATALOG = """
+            {
+              "types": [
+                {"name": "Ladder", "dailyCharge": %s, "weekdayCharge": true, "weekendCharge": true, "holidayCharge": false},
+                {"name": "Trailer", "dailyCharge": 24.50, "weekdayCharge": true, "weekendCharge": true, "holidayCharge": true}
+              ],
+              "tools": [
+                {"code": "LADW", "type": "Ladder", "brand": "Werner"},
+                {"code": "TRLU", "type": "Trailer", "brand": "U-Haul"}
+              ]
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @AfterEach
+    void restoreDefaultCatalog() {
+        ToolCatalog.install(ToolCatalog.DEFAULT);
+    }
+
+    @Test
+    void testLoadsCatalogFile() throws IOException {
+        Path file = write(CATALOG.formatted("2.49"));
+
+        service(file, false);
+
+        Tool trailer = Tool.of("TRLU");
+        assertEquals("U-Haul", trailer.getBrand());
+        assertEquals(2450, trailer.getType().getDailyChargeCents());
+        assertEquals(2, Tool.values().length);
+        assertThrows(IllegalArgumentException.class, () -> Tool.of("CHNS"));
+        assertEquals("\"TRLU\"", objectMapper.writeValueAsString(trailer));
+        assertSame(trailer, objectMapper.readValue("\"TRLU\"", Tool.class));
+    }
+
+    @Test
+    void testReloadChangesPrices() throws IOException {
+        Path file = write(CATALOG.formatted("2.49"));
+        CatalogService catalogService = service(file, false);
+        RentalService rentalService = new RentalService();
+        // Mon 06/03/24 to Fri 06/07/24
+        RentalRequest before = request(Tool.of("LADW"));
+
+        write(CATALOG.formatted("3.00"));
+        assertTrue(catalogService.reload());
+        RentalRequest after = request(Tool.of("LADW"));
+
+        assertEquals(new BigDecimal("12.45"), rentalService.process(before).getAgreement().getFinalCharge());
+        assertEquals(new BigDecimal("15.00"), rentalService.process(after).getAgreement().getFinalCharge());
+    }
+
+    @Test
+    void testInvalidFileKeepsCurrentCatalog() throws IOException {
+        Path file = write(CATALOG.formatted("2.49"));
+        CatalogService catalogService = service(file, false);
+        ToolCatalog loaded = ToolCatalog.current();
+
+        write(CATALOG.formatted("2.499"));
+        assertFalse(catalogService.reload());
+        write(CATALOG.replace("\"type\": \"Trailer\"", "\"type\": \"Boat\"").formatted("2.49"));
+        assertFalse(catalogService.reload());
+        write("{\"types\": [");
+        assertFalse(catalogService.reload());
+
+        assertSame(loaded, ToolCatalog.current());
+    }
+
+    @Test
+    void testMissingFileUsesDefaults() throws IOException {
+        service(directory.resolve("missing.json"), false);
+
+        assertSame(ToolCatalog.DEFAULT, ToolCatalog.current());
+        assertEquals(Type.Ladder, Tool.of("LADW").getType());
+    }
+
+    @Test
+    void testWatchesFile() throws Exception {
+        Path file = directory.resolve("catalog.json");
+        CatalogService catalogService = service(file, true);
+        try {
+            write(CATALOG.formatted("2.49"));
+
+            for (int i = 0; i < 100 && ToolCatalog.current().find("TRLU").isEmpty(); i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(ToolCatalog.current().find("TRLU").isPresent());
+        } finally {
+            catalogService.close();
+        }
+    }
+
+    @Test
+    void testDuplicateToolCode() {
+        assertThrows(IllegalArgumentException.class, () -> new ToolCatalog(
+                List.of(Type.Ladder), List.of(Tool.LADW, Tool.LADW)));
+    }
+
+    private CatalogService service(Path file, boolean watch) throws IOException {
+        return new CatalogService(file.toString(), watch, objectMapper, QuoteCache.disabled());
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("catalog.json"), content);
+    }
+
+    private static RentalRequest request(Tool tool) {
+        return RentalRequest.builder()
+                .tool(tool)
+                .checkoutDate(LocalDate.of(2024, 6, 2))
+                .rentalDay(5)
+                .build();
+    }
+}
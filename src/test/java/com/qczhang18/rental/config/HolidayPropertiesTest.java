@@ -0,0 +1,60 @@
+package com.qczhang18.rental.config;
+
+import com.qczhang18.rental.util.HolidayRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for HolidayProperties
+ * Verifies configured rules are turned into holiday rules and incomplete ones are rejected
+ */
+class HolidayPropertiesTest {
+
+    @Test
+    void testConfiguredUsRulesMatchBuiltIn() {
+        HolidayProperties.Rule independenceDay = rule("Independence Day", HolidayProperties.RuleType.FIXED_DATE);
+        independenceDay.setMonth(Month.JULY);
+        independenceDay.setDay(4);
+        independenceDay.setObservance(HolidayRule.Observance.NEAREST_WEEKDAY);
+        HolidayProperties.Rule laborDay = rule("Labor Day", HolidayProperties.RuleType.NTH_WEEKDAY);
+        laborDay.setMonth(Month.SEPTEMBER);
+        laborDay.setDayOfWeek(DayOfWeek.MONDAY);
+        HolidayProperties properties = new HolidayProperties();
+        properties.setCalendars(Map.of("US", List.of(independenceDay, laborDay)));
+
+        assertEquals(Map.of("US", HolidayRule.US), properties.toRules());
+    }
+
+    @Test
+    void testOneOff() {
+        HolidayProperties.Rule mourning = rule("Day of Mourning", HolidayProperties.RuleType.ONE_OFF);
+        mourning.setDate(LocalDate.of(2025, 1, 9));
+        HolidayProperties properties = new HolidayProperties();
+        properties.setCalendars(Map.of("US", List.of(mourning)));
+
+        assertEquals(List.of(new HolidayRule.OneOff("Day of Mourning", LocalDate.of(2025, 1, 9))),
+                properties.toRules().get("US"));
+    }
+
+    @Test
+    void testIncompleteRule() {
+        HolidayProperties properties = new HolidayProperties();
+        properties.setCalendars(Map.of("US", List.of(rule("Memorial Day", HolidayProperties.RuleType.LAST_WEEKDAY))));
+
+        assertThrows(IllegalArgumentException.class, properties::toRules);
+    }
+
+    private static HolidayProperties.Rule rule(String name, HolidayProperties.RuleType type) {
+        HolidayProperties.Rule rule = new HolidayProperties.Rule();
+        rule.setName(name);
+        rule.setType(type);
+        return rule;
+    }
+}
@@ -0,0 +1,99 @@
+package com.qczhang18.rental.config;
+
+import com.qczhang18.rental.controller.RentalController;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.BatchPricingService;
+import com.qczhang18.rental.service.RentalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Test cases for WebConfiguration
+ * Verifies /rent negotiates CBOR by Accept and Content-Type while JSON stays the default
+ */
+class WebConfigurationTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final MockMvc mockMvc;
+
+    private final RentalRequest request = RentalRequest.builder()
+            .tool(Tool.LADW)
+            .checkoutDate(LocalDate.of(2020, 7, 2))
+            .rentalDay(3)
+            .discountPercent(10)
+            .build();
+
+    WebConfigurationTest() {
+        HttpMessageConverters.ServerBuilder builder = HttpMessageConverters.forServer().registerDefaults();
+        new WebConfiguration().configureMessageConverters(builder);
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        builder.build().forEach(converters::add);
+
+        RentalService service = new RentalService();
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new RentalController(service, new BatchPricingService(service, 1, 1), jsonMapper))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[0]))
+                .build();
+    }
+
+    @Test
+    void testJsonIsTheDefault() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/rent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.ALL)
+                        .content(jsonMapper.writeValueAsBytes(request)))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        assertEquals("success", jsonMapper.readValue(response.getContentAsByteArray(), RentalResponse.class).getMessage());
+    }
+
+    @Test
+    void testCborInAndOut() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/rent")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(request)))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.APPLICATION_CBOR, MediaType.parseMediaType(response.getContentType()));
+        RentalResponse rentalResponse = cborMapper.readValue(response.getContentAsByteArray(), RentalResponse.class);
+        assertEquals("success", rentalResponse.getMessage());
+        assertEquals(new BigDecimal("3.58"), rentalResponse.getAgreement().getFinalCharge());
+        assertEquals(LocalDate.of(2020, 7, 5), rentalResponse.getAgreement().getDueDate());
+        assertTrue(response.getContentAsByteArray().length < jsonMapper.writeValueAsBytes(rentalResponse).length);
+    }
+
+    @Test
+    void testCborResponseToJsonRequest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/rent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(jsonMapper.writeValueAsBytes(request)))
+                .andReturn().getResponse();
+
+        assertEquals(MediaType.APPLICATION_CBOR, MediaType.parseMediaType(response.getContentType()));
+        assertEquals(2, cborMapper.readValue(response.getContentAsByteArray(), RentalResponse.class)
+                .getAgreement().getChargeDays());
+    }
+}
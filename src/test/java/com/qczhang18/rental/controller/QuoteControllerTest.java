@@ -0,0 +1,159 @@
+package com.qczhang18.rental.controller;
+
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.service.RentalService;
+import com.qczhang18.rental.util.ChargeDayIndex;
+import com.qczhang18.rental.util.HolidayCalendar;
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.HolidayRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Test cases for QuoteController
+ * Verifies the caching headers of GET /quote and that revalidations are answered without pricing
+ */
+class QuoteControllerTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final RentalService rentalService = spy(new RentalService());
+    private final HolidayCalendars holidayCalendars = new HolidayCalendars(Map.of(
+            "US", new ChargeDayIndex(),
+            "CA", new ChargeDayIndex(new HolidayCalendar(List.of(HolidayRule.US.get(1)), 1900, 2199), 1970, 2100)),
+            "US");
+    private final QuoteController controller = new QuoteController(rentalService, holidayCalendars, Duration.ofMinutes(30));
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    private MockHttpServletResponse quote(String query, String ifNoneMatch) throws Exception {
+        var request = get("/quote?" + query);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void testQuoteIsCacheable() throws Exception {
+        MockHttpServletResponse response = quote("tool=LADW&days=3&discount=10&checkout=7/2/20", null);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertFalse(response.getHeader(HttpHeaders.ETAG).startsWith("W/"));
+        assertEquals("max-age=1800, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        RentalResponse rentalResponse = jsonMapper.readValue(response.getContentAsByteArray(), RentalResponse.class);
+        assertEquals("success", rentalResponse.getMessage());
+        assertEquals(2, rentalResponse.getAgreement().getChargeDays());
+        assertEquals(new BigDecimal("3.58"), rentalResponse.getAgreement().getFinalCharge());
+        assertNull(rentalResponse.getAgreementId());
+    }
+
+    @Test
+    void testMatchingETagIsNotModifiedWithoutPricing() throws Exception {
+        String eTag = quote("tool=LADW&days=3&discount=10&checkout=7/2/20", null).getHeader(HttpHeaders.ETAG);
+        clearInvocations(rentalService);
+
+        MockHttpServletResponse response = quote("tool=LADW&days=3&discount=10&checkout=7/2/20", eTag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("max-age=1800, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(0, response.getContentLength());
+        verify(rentalService, never()).quote(any(), anyBoolean());
+        verify(rentalService, never()).checkout(any());
+    }
+
+    @Test
+    void testStaleETagGetsTheQuote() throws Exception {
+        String eTag = quote("tool=LADW&days=3&discount=10&checkout=7/2/20", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = quote("tool=LADW&days=3&discount=20&checkout=7/2/20", eTag);
+
+        assertEquals(200, response.getStatus());
+        assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    private static RentalRequest request(Tool tool, int rentalDay, int discountPercent, LocalDate checkoutDate, String holidayCalendar) {
+        return RentalRequest.builder()
+                .tool(tool)
+                .rentalDay(rentalDay)
+                .discountPercent(discountPercent)
+                .checkoutDate(checkoutDate)
+                .holidayCalendar(holidayCalendar)
+                .build();
+    }
+
+    @Test
+    void testETagCoversEveryInput() {
+        LocalDate checkout = LocalDate.of(2020, 7, 2);
+        String eTag = controller.eTag(request(Tool.LADW, 3, 10, checkout, null)).orElseThrow();
+
+        assertEquals(eTag, controller.eTag(request(Tool.LADW, 3, 10, checkout, null)).orElseThrow());
+        assertEquals(eTag, controller.eTag(request(Tool.LADW, 3, 10, checkout, "US")).orElseThrow());
+        assertNotEquals(eTag, controller.eTag(request(Tool.CHNS, 3, 10, checkout, null)).orElseThrow());
+        assertNotEquals(eTag, controller.eTag(request(Tool.LADW, 4, 10, checkout, null)).orElseThrow());
+        assertNotEquals(eTag, controller.eTag(request(Tool.LADW, 3, 0, checkout, null)).orElseThrow());
+        assertNotEquals(eTag, controller.eTag(request(Tool.LADW, 3, 10, checkout.plusDays(1), null)).orElseThrow());
+        assertNotEquals(eTag, controller.eTag(request(Tool.LADW, 3, 10, checkout, "CA")).orElseThrow());
+    }
+
+    @Test
+    void testETagChangesWithTheCatalog() {
+        LocalDate checkout = LocalDate.of(2020, 7, 2);
+        Tool repriced = new Tool("LADW", new Type("Ladder", new BigDecimal("2.49"), true, true, false), "Werner");
+
+        assertNotEquals(controller.eTag(request(Tool.LADW, 3, 10, checkout, null)).orElseThrow(),
+                controller.eTag(request(repriced, 3, 10, checkout, null)).orElseThrow());
+    }
+
+    @Test
+    void testInvalidRequestHasNoETag() {
+        assertTrue(controller.eTag(request(Tool.LADW, 0, 10, LocalDate.of(2020, 7, 2), null)).isEmpty());
+        assertTrue(controller.eTag(request(Tool.LADW, 3, 10, LocalDate.of(2020, 7, 2), "XX")).isEmpty());
+    }
+
+    @Test
+    void testHolidayVersionIsStable() {
+        HolidayCalendar calendar = new HolidayCalendar(HolidayRule.US, 2000, 2010);
+
+        assertEquals(HolidayCalendar.DEFAULT.getVersion(), calendar.getVersion());
+        assertNotEquals(calendar.getVersion(), new HolidayCalendar(List.of(HolidayRule.US.get(0)), 2000, 2010).getVersion());
+    }
+
+    @Test
+    void testValidationErrorIsNotCached() throws Exception {
+        MockHttpServletResponse response = quote("tool=LADW&days=3&discount=101&checkout=7/2/20", "*");
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-store", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertTrue(jsonMapper.readValue(response.getContentAsByteArray(), RentalResponse.class)
+                .getMessage().startsWith("validation error"));
+    }
+
+    @Test
+    void testUnknownCalendarIsNotCached() throws Exception {
+        MockHttpServletResponse response = quote("tool=LADW&days=3&checkout=7/2/20&calendar=XX", null);
+
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-store", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+}
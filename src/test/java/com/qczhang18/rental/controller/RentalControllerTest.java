@@ -3,17 +3,31 @@ package com.qczhang18.rental.controller;
 import com.qczhang18.rental.model.RentalRequest;
 import com.qczhang18.rental.model.RentalResponse;
 import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.BatchPricingService;
+import com.qczhang18.rental.service.IdempotencyCache;
 import com.qczhang18.rental.service.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class RentalControllerTest {
@@ -58,4 +72,74 @@ class RentalControllerTest {
         assertEquals(BigDecimal.valueOf(3.58), response.getAgreement().getFinalCharge());
     }
 
-}
\ No newline at end of file
+    // ------------------ Idempotency ------------------
+    // A retry with the same key is answered without checking out again
+    @Test
+    void testIdempotencyKey_retryIsNotCheckedOutTwice() {
+        RentalController idempotentController = new RentalController(rentalService, new BatchPricingService(rentalService, 1, 1),
+                JsonMapper.builder().build(), new IdempotencyCache(10, Duration.ofMinutes(1), Duration.ofSeconds(10), new SimpleMeterRegistry()));
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .discountPercent(10)
+                .build();
+
+        RentalResponse first = idempotentController.rental(request, false, "retry-1");
+        RentalResponse retry = idempotentController.rental(request, false, "retry-1");
+        idempotentController.rental(request, false, null);
+
+        assertEquals("success", first.getMessage());
+        assertSame(first, retry);
+        verify(rentalService, times(2)).process(any(), anyBoolean());
+    }
+
+    // ------------------ Batch ------------------
+    // NDJSON with an invalid discount and an unknown tool reported inline
+    @Test
+    void testBatch_ndjson() throws Exception {
+        JsonMapper objectMapper = JsonMapper.builder().build();
+        RentalService service = new RentalService();
+        RentalController batchController = new RentalController(service, new BatchPricingService(service, 2, 2), objectMapper);
+        String body = """
+                {"tool": "LADW", "rentalDay": 3, "discountPercent": 10, "checkoutDate": "7/2/20"}
+                {"tool": "JAKR", "rentalDay": 5, "discountPercent": 101, "checkoutDate": "9/3/15"}
+                {"tool": "XXXX", "rentalDay": 5, "discountPercent": 0, "checkoutDate": "9/3/15"}
+                """;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        batchController.rentalBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        RentalResponse first = objectMapper.readValue(lines[0], RentalResponse.class);
+        assertEquals("success", first.getMessage());
+        assertEquals(new BigDecimal("3.58"), first.getAgreement().getFinalCharge());
+        assertEquals("validation error, please check your request : Discount percentage \"101\" is invalid. Must be between  0 and 100 ",
+                objectMapper.readValue(lines[1], RentalResponse.class).getMessage());
+        assertTrue(objectMapper.readValue(lines[2], RentalResponse.class).getMessage().startsWith("validation error"));
+    }
+
+    // JSON array in, same responses out in order
+    @Test
+    void testBatch_jsonArray() throws Exception {
+        JsonMapper objectMapper = JsonMapper.builder().build();
+        RentalService service = new RentalService();
+        RentalController batchController = new RentalController(service, new BatchPricingService(service, 2, 2), objectMapper);
+        String body = """
+                [
+                  {"tool": "CHNS", "rentalDay": 5, "discountPercent": 25, "checkoutDate": "7/2/15"},
+                  {"tool": "JAKR", "rentalDay": 9, "discountPercent": 0, "checkoutDate": "7/2/15"}
+                ]
+                """;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        batchController.rentalBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(3, objectMapper.readValue(lines[0], RentalResponse.class).getAgreement().getChargeDays());
+        assertEquals(5, objectMapper.readValue(lines[1], RentalResponse.class).getAgreement().getChargeDays());
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.qczhang18.rental.inventory;
+
+import com.qczhang18.rental.exception.UnavailableException;
+import com.qczhang18.rental.exception.ValidationException;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.AvailabilityWindow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for InventoryService
+ * Verifies reservations never overbook a tool, also under concurrent checkouts
+ */
+class InventoryServiceTest {
+
+    private static final LocalDate JULY_2 = LocalDate.of(2020, 7, 2);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReservesUntilEveryUnitIsBooked() throws UnavailableException {
+        InventoryService inventory = new InventoryService(Map.of("LADW", 2));
+
+        Reservation first = inventory.reserve("LADW", JULY_2, JULY_2.plusDays(3));
+        Reservation second = inventory.reserve("LADW", JULY_2.plusDays(1), JULY_2.plusDays(2));
+
+        assertNotEquals(first.getUnit(), second.getUnit());
+        UnavailableException exception = assertThrows(UnavailableException.class,
+                () -> inventory.reserve("LADW", JULY_2.plusDays(2), JULY_2.plusDays(4)));
+        assertEquals("No LADW is available from 07/04/20 to 07/06/20 ", exception.getMessage());
+    }
+
+    @Test
+    void testAdjacentPeriodsShareAUnit() throws UnavailableException {
+        InventoryService inventory = new InventoryService(Map.of("CHNS", 1));
+
+        inventory.reserve("CHNS", JULY_2, JULY_2.plusDays(3));
+        inventory.reserve("CHNS", JULY_2.plusDays(4), JULY_2.plusDays(10));
+        inventory.reserve("CHNS", JULY_2.minusDays(5), JULY_2.minusDays(1));
+
+        assertThrows(UnavailableException.class, () -> inventory.reserve("CHNS", JULY_2.plusDays(10), JULY_2.plusDays(10)));
+        assertThrows(UnavailableException.class, () -> inventory.reserve("CHNS", JULY_2.minusDays(10), JULY_2.plusDays(20)));
+    }
+
+    @Test
+    void testReleaseFreesTheUnit() throws UnavailableException {
+        InventoryService inventory = new InventoryService(Map.of("JAKR", 1));
+
+        Reservation reservation = inventory.reserve("JAKR", JULY_2, JULY_2.plusDays(3));
+        inventory.release(reservation);
+
+        assertEquals(reservation, inventory.reserve("JAKR", JULY_2, JULY_2.plusDays(3)));
+    }
+
+    @Test
+    void testUnknownToolIsUnavailable() {
+        InventoryService inventory = new InventoryService(Map.of("LADW", 2));
+
+        assertEquals(0, inventory.getUnitCount("JAKD"));
+        assertThrows(UnavailableException.class, () -> inventory.reserve("JAKD", JULY_2, JULY_2));
+    }
+
+    @Test
+    void testUnlimited() throws UnavailableException {
+        InventoryService inventory = InventoryService.unlimited();
+
+        for (int i = 0; i < 100; i++) {
+            inventory.reserve("LADW", JULY_2, JULY_2.plusDays(3));
+        }
+    }
+
+    @Test
+    void testConcurrentCheckoutsNeverOverbook() throws Exception {
+        int units = 8;
+        int threads = 16;
+        int attempts = 200;
+        InventoryService inventory = new InventoryService(Map.of("LADW", units, "CHNS", units));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Callable<Integer> checkouts = () -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < attempts; i++) {
+                    // Every period overlaps July 10th
+                    LocalDate from = JULY_2.plusDays(i % 8);
+                    try {
+                        inventory.reserve(i % 2 == 0 ? "LADW" : "CHNS", from, from.plusDays(8));
+                        reserved++;
+                    } catch (UnavailableException ignored) {
+                        // Expected once every unit is booked
+                    }
+                }
+                return reserved;
+            };
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(checkouts));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Integer> result : results) {
+                reserved += result.get();
+            }
+            assertEquals(2 * units, reserved);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFindsEarliestWindowPerUnit() throws Exception {
+        InventoryService inventory = new InventoryService(Map.of("JAKR", 3));
+        // One unit is free from 08/03, one from 08/05 and one not before 08/31
+        inventory.reserve("JAKR", LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 4));
+        inventory.reserve("JAKR", LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 2));
+        inventory.reserve("JAKR", LocalDate.of(2024, 7, 20), LocalDate.of(2024, 8, 30));
+
+        List<AvailabilityWindow> windows = inventory.findAvailability("JAKR", 5,
+                LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 31), 10);
+
+        assertEquals(2, windows.size());
+        assertEquals(LocalDate.of(2024, 8, 3), windows.get(0).getCheckoutDate());
+        assertEquals(LocalDate.of(2024, 8, 8), windows.get(0).getDueDate());
+        assertEquals(LocalDate.of(2024, 8, 5), windows.get(1).getCheckoutDate());
+        assertEquals(1, inventory.findAvailability("JAKR", 5,
+                LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 31), 1).size());
+    }
+
+    @Test
+    void testWindowMustEndByToDate() throws Exception {
+        InventoryService inventory = new InventoryService(Map.of("JAKR", 1));
+        inventory.reserve("JAKR", LocalDate.of(2024, 8, 3), LocalDate.of(2024, 8, 26));
+
+        assertTrue(inventory.findAvailability("JAKR", 5,
+                LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 31), 10).isEmpty());
+        assertEquals(LocalDate.of(2024, 8, 27), inventory.findAvailability("JAKR", 4,
+                LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 31), 10).get(0).getCheckoutDate());
+    }
+
+    @Test
+    void testAvailabilityMatchesBruteForce() throws Exception {
+        InventoryService inventory = new InventoryService(Map.of("LADW", 1));
+        Random random = new Random(42);
+        boolean[] booked = new boolean[4000];
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(booked.length - 10);
+            int end = start + random.nextInt(6);
+            try {
+                inventory.reserve("LADW", JULY_2.plusDays(start), JULY_2.plusDays(end));
+                for (int day = start; day <= end; day++) {
+                    booked[day] = true;
+                }
+            } catch (UnavailableException ignored) {
+                // Overlaps an earlier booking
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(booked.length - 100);
+            int to = from + 10 + random.nextInt(90);
+            int days = 1 + random.nextInt(8);
+            LocalDate expected = null;
+            for (int start = from; start + days <= to && expected == null; start++) {
+                boolean free = true;
+                for (int day = start; day <= start + days; day++) {
+                    free &= !booked[day];
+                }
+                if (free) {
+                    expected = JULY_2.plusDays(start);
+                }
+            }
+
+            List<AvailabilityWindow> windows = inventory.findAvailability("LADW", days,
+                    JULY_2.plusDays(from), JULY_2.plusDays(to), 1);
+            assertEquals(expected, windows.isEmpty() ? null : windows.get(0).getCheckoutDate(),
+                    "from " + from + " to " + to + " for " + days);
+        }
+    }
+
+    @Test
+    void testInvalidAvailabilitySearch() {
+        InventoryService inventory = new InventoryService(Map.of("LADW", 1));
+
+        assertThrows(ValidationException.class, () -> inventory.findAvailability("LADW", 0, JULY_2, JULY_2.plusDays(5), 1));
+        assertThrows(ValidationException.class, () -> inventory.findAvailability("LADW", 5, JULY_2, JULY_2.plusDays(4), 1));
+        assertThrows(ValidationException.class, () -> inventory.findAvailability("LADW", 5, JULY_2, JULY_2.plusDays(5), 0));
+    }
+
+    @Test
+    void testRestoresReservationsFromJournal() throws IOException, UnavailableException {
+        AgreementJournal journal = new AgreementJournal(true, directory.toString(), DataSize.ofKilobytes(64),
+                Duration.ofMillis(50));
+        journal.append(agreement(JULY_2, 3));
+        journal.append(agreement(JULY_2.plusDays(10), 3));
+
+        InventoryService inventory = new InventoryService("LADW:1", 0, journal);
+        journal.close();
+
+        assertThrows(UnavailableException.class, () -> inventory.reserve("LADW", JULY_2.plusDays(3), JULY_2.plusDays(3)));
+        inventory.reserve("LADW", JULY_2.plusDays(4), JULY_2.plusDays(9));
+        assertEquals(0, inventory.getUnitCount("CHNS"));
+    }
+
+    private static Agreement agreement(LocalDate checkoutDate, int rentalDays) {
+        return Agreement.builder()
+                .toolCode("LADW")
+                .toolType("Ladder")
+                .toolBrand("Werner")
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(rentalDays)
+                .preDiscountCharge(new BigDecimal("5.97"))
+                .discountPercent(0)
+                .discountAmount(new BigDecimal("0.00"))
+                .finalCharge(new BigDecimal("5.97"))
+                .build();
+    }
+}
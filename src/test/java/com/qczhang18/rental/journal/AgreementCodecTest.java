@@ -0,0 +1,66 @@
+package com.qczhang18.rental.journal;
+
+import com.qczhang18.rental.model.Agreement;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for AgreementCodec
+ * Verifies that agreements survive the round trip, including dates whose epoch day does not fit an int
+ */
+class AgreementCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        Agreement agreement = agreement(LocalDate.of(2020, 7, 2), 4);
+
+        assertEquals(agreement, AgreementCodec.decode(AgreementCodec.encode(agreement)));
+    }
+
+    @Test
+    void testRoundTripLongestRental() {
+        // The longest valid rental ends past the last epoch day an int holds
+        Agreement agreement = agreement(LocalDate.of(2020, 7, 2), Integer.MAX_VALUE);
+        assertTrue(agreement.getDueDate().toEpochDay() > Integer.MAX_VALUE);
+
+        assertEquals(agreement, AgreementCodec.decode(AgreementCodec.encode(agreement)));
+    }
+
+    @Test
+    void testRoundTripDateLimits() {
+        Agreement earliest = agreement(LocalDate.MIN, 1);
+        Agreement latest = agreement(LocalDate.MAX.minusDays(1), 1);
+
+        assertEquals(earliest, AgreementCodec.decode(AgreementCodec.encode(earliest)));
+        assertEquals(latest, AgreementCodec.decode(AgreementCodec.encode(latest)));
+    }
+
+    @Test
+    void testUnknownVersion() {
+        byte[] body = AgreementCodec.encode(agreement(LocalDate.of(2020, 7, 2), 4));
+        body[0] = 1;
+
+        assertThrows(IllegalStateException.class, () -> AgreementCodec.decode(body));
+    }
+
+    private static Agreement agreement(LocalDate checkoutDate, int rentalDays) {
+        return Agreement.builder()
+                .toolCode("LADW")
+                .toolType("Ladder")
+                .toolBrand("Werner")
+                .rentalDays(rentalDays)
+                .checkoutDate(checkoutDate)
+                .dueDate(checkoutDate.plusDays(rentalDays))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(rentalDays)
+                .preDiscountCharge(new BigDecimal("1.99").multiply(BigDecimal.valueOf(rentalDays)))
+                .discountPercent(0)
+                .discountAmount(new BigDecimal("0.00"))
+                .finalCharge(new BigDecimal("1.99").multiply(BigDecimal.valueOf(rentalDays)))
+                .build();
+    }
+}
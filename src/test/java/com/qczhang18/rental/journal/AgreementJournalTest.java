@@ -0,0 +1,216 @@
+package com.qczhang18.rental.journal;
+
+import com.qczhang18.rental.model.Agreement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgreementJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndFind() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(64));
+
+        long first = journal.append(agreement(3));
+        long second = journal.append(agreement(4));
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(agreement(3), journal.find(first).orElseThrow());
+        assertEquals(agreement(4), journal.find(second).orElseThrow());
+        assertTrue(journal.find(3).isEmpty());
+        assertTrue(journal.find(0).isEmpty());
+        journal.close();
+    }
+
+    @Test
+    void testRollsSegmentsAndRecovers() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(1));
+        for (int day = 1; day <= 100; day++) {
+            assertEquals(day, journal.append(agreement(day)));
+        }
+        journal.close();
+        assertTrue(segments().size() > 1, "Small segments should roll over");
+
+        AgreementJournal reopened = open(DataSize.ofKilobytes(1));
+
+        assertEquals(100, reopened.getLastId());
+        for (int day = 1; day <= 100; day++) {
+            assertEquals(agreement(day), reopened.find(day).orElseThrow());
+        }
+        assertEquals(101, reopened.append(agreement(101)));
+        reopened.close();
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(64));
+        journal.append(agreement(1));
+        journal.append(agreement(2));
+        journal.close();
+
+        // Corrupt the last byte of the second record's body
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            file.seek(firstLength);
+            int secondLength = file.readInt();
+            file.seek(firstLength + secondLength - 1);
+            file.writeByte(0x7F);
+        }
+
+        AgreementJournal reopened = open(DataSize.ofKilobytes(64));
+
+        assertEquals(1, reopened.getLastId());
+        assertTrue(reopened.find(2).isEmpty());
+        assertEquals(2, reopened.append(agreement(3)));
+        assertEquals(agreement(3), reopened.find(2).orElseThrow());
+        reopened.close();
+    }
+
+    @Test
+    void testDamagedSegmentLosesOnlyItsOwnRecords() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(1));
+        for (int day = 1; day <= 100; day++) {
+            journal.append(agreement(day));
+        }
+        journal.close();
+        corrupt(segments().get(0), 1);
+        String second = segments().get(1).getFileName().toString();
+        long secondFirstId = Long.parseLong(second.substring("segment-".length(), second.length() - ".log".length()));
+
+        AgreementJournal reopened = open(DataSize.ofKilobytes(1));
+
+        assertEquals(100, reopened.getLastId());
+        assertEquals(agreement(1), reopened.find(1).orElseThrow());
+        for (int day = 2; day < secondFirstId; day++) {
+            assertTrue(reopened.find(day).isEmpty());
+        }
+        for (int day = (int) secondFirstId; day <= 100; day++) {
+            assertEquals(agreement(day), reopened.find(day).orElseThrow());
+        }
+        // Appending rolls further segments without clashing with the ones on disk
+        for (int day = 101; day <= 200; day++) {
+            assertEquals(day, reopened.append(agreement(day)));
+        }
+        reopened.close();
+
+        AgreementJournal again = open(DataSize.ofKilobytes(1));
+        assertEquals(200, again.getLastId());
+        assertEquals(agreement(200), again.find(200).orElseThrow());
+        again.close();
+    }
+
+    @Test
+    void testAppendAllRecoversTogether() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(64));
+        journal.append(agreement(1));
+
+        assertEquals(List.of(2L, 3L, 4L), journal.appendAll(List.of(agreement(2), agreement(3), agreement(4))));
+        journal.close();
+
+        AgreementJournal reopened = open(DataSize.ofKilobytes(64));
+        assertEquals(4, reopened.getLastId());
+        assertEquals(agreement(3), reopened.find(3).orElseThrow());
+        reopened.close();
+    }
+
+    @Test
+    void testTornAppendAllIsDroppedWhole() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(64));
+        journal.append(agreement(1));
+        journal.appendAll(List.of(agreement(2), agreement(3), agreement(4)));
+        journal.close();
+        corrupt(segments().get(0), 3);
+
+        AgreementJournal reopened = open(DataSize.ofKilobytes(64));
+
+        assertEquals(1, reopened.getLastId());
+        assertTrue(reopened.find(2).isEmpty());
+        assertEquals(2, reopened.append(agreement(5)));
+        reopened.close();
+    }
+
+    @Test
+    void testAppendAllMustFitASegment() throws IOException {
+        AgreementJournal journal = open(DataSize.ofKilobytes(1));
+        List<Agreement> agreements = new ArrayList<>();
+        for (int day = 1; day <= 100; day++) {
+            agreements.add(agreement(day));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> journal.appendAll(agreements));
+        assertEquals(0, journal.getLastId());
+        journal.close();
+    }
+
+    @Test
+    void testDisabled() {
+        AgreementJournal journal = AgreementJournal.disabled();
+
+        assertFalse(journal.isEnabled());
+        assertThrows(IllegalStateException.class, () -> journal.append(agreement(1)));
+    }
+
+    private AgreementJournal open(DataSize segmentSize) throws IOException {
+        return new AgreementJournal(true, directory.toString(), segmentSize, Duration.ofMillis(50));
+    }
+
+    /**
+     * Corrupts the last byte of a record's body
+     */
+    private static void corrupt(Path segment, int record) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = 0;
+            for (int i = 0; i < record; i++) {
+                file.seek(offset);
+                offset += file.readInt();
+            }
+            file.seek(offset);
+            long last = offset + file.readInt() - 1;
+            file.seek(last);
+            int value = file.readByte();
+            file.seek(last);
+            file.writeByte(value ^ 0x7F);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Agreement agreement(int rentalDays) {
+        return Agreement.builder()
+                .toolCode("LADW")
+                .toolType("Ladder")
+                .toolBrand("Werner")
+                .rentalDays(rentalDays)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .dueDate(LocalDate.of(2020, 7, 2).plusDays(rentalDays))
+                .dailyRentalCharge(new BigDecimal("1.99"))
+                .chargeDays(rentalDays - 1)
+                .preDiscountCharge(new BigDecimal("1.99").multiply(BigDecimal.valueOf(rentalDays - 1)))
+                .discountPercent(0)
+                .discountAmount(new BigDecimal("0.00"))
+                .finalCharge(new BigDecimal("1.99").multiply(BigDecimal.valueOf(rentalDays - 1)))
+                .build();
+    }
+}
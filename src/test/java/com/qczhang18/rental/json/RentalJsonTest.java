@@ -0,0 +1,161 @@
+package com.qczhang18.rental.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.service.RentalService;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the hand-written RentalRequest, RentalResponse and Agreement serializers
+ * Verifies they produce and accept the same JSON as bean serialization driven by the field annotations
+ */
+class RentalJsonTest {
+
+    @JsonSerialize(using = ValueSerializer.None.class)
+    @JsonDeserialize(using = ValueDeserializer.None.class)
+    private interface BeanMapped {
+    }
+
+    // Agreements are immutable, so bean deserialization goes through their constructor
+    @JsonSerialize(using = ValueSerializer.None.class)
+    @JsonDeserialize(using = ValueDeserializer.None.class)
+    private abstract static class AgreementBeanMapped {
+        @JsonCreator
+        AgreementBeanMapped(@JsonProperty("toolCode") String toolCode,
+                            @JsonProperty("toolType") String toolType,
+                            @JsonProperty("toolBrand") String toolBrand,
+                            @JsonProperty("rentalDays") int rentalDays,
+                            @JsonProperty("checkoutDate") LocalDate checkoutDate,
+                            @JsonProperty("dueDate") LocalDate dueDate,
+                            @JsonProperty("dailyRentalCharge") BigDecimal dailyRentalCharge,
+                            @JsonProperty("chargeDays") int chargeDays,
+                            @JsonProperty("preDiscountCharge") BigDecimal preDiscountCharge,
+                            @JsonProperty("discountPercent") int discountPercent,
+                            @JsonProperty("discountAmount") BigDecimal discountAmount,
+                            @JsonProperty("finalCharge") BigDecimal finalCharge) {
+        }
+    }
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+    private final JsonMapper beanMapper = JsonMapper.builder()
+            .addMixIn(RentalRequest.class, BeanMapped.class)
+            .addMixIn(RentalResponse.class, BeanMapped.class)
+            .addMixIn(Agreement.class, AgreementBeanMapped.class)
+            .build();
+
+    private final RentalService service = new RentalService();
+
+    private List<RentalResponse> responses() {
+        RentalRequest.RentalRequestBuilder request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .discountPercent(10);
+
+        RentalResponse journaled = service.process(request.build());
+        journaled.setAgreementId(42L);
+        RentalResponse failed = new RentalResponse();
+        failed.setMessage("internal server error, please contact support");
+        RentalResponse incomplete = new RentalResponse();
+        incomplete.setAgreement(Agreement.builder().toolCode("JAKR").build());
+        return List.of(
+                service.process(request.build()),
+                journaled,
+                service.process(request.tool(Tool.JAKR).rentalDay(9).discountPercent(101).build()),
+                failed,
+                incomplete);
+    }
+
+    @Test
+    void testWritesAgreementsExactly() {
+        RentalResponse response = service.process(RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .discountPercent(10)
+                .build());
+
+        assertEquals("{\"agreement\":{\"chargeDays\":2,\"checkoutDate\":\"07/02/20\",\"dailyRentalCharge\":1.99,"
+                        + "\"discountAmount\":0.40,\"discountPercent\":10,\"dueDate\":\"07/05/20\",\"finalCharge\":3.58,"
+                        + "\"preDiscountCharge\":3.98,\"rentalDays\":3,\"toolBrand\":\"Werner\",\"toolCode\":\"LADW\","
+                        + "\"toolType\":\"Ladder\"},\"message\":\"success\"}",
+                objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void testResponsesMatchBeanSerialization() {
+        for (RentalResponse response : responses()) {
+            String json = objectMapper.writeValueAsString(response);
+            assertEquals(beanMapper.writeValueAsString(response), json);
+            assertEquals(beanMapper.readValue(json, RentalResponse.class), objectMapper.readValue(json, RentalResponse.class));
+            assertEquals(response, objectMapper.readValue(json, RentalResponse.class));
+        }
+    }
+
+    @Test
+    void testWritesTraceLikeBeanSerialization() {
+        RentalResponse explained = service.process(RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(9)
+                .build(), true);
+
+        assertEquals(beanMapper.writeValueAsString(explained), objectMapper.writeValueAsString(explained));
+    }
+
+    @Test
+    void testRequestsMatchBeanSerialization() {
+        List<RentalRequest> requests = List.of(
+                RentalRequest.builder().tool(Tool.CHNS).checkoutDate(LocalDate.of(2015, 7, 2)).rentalDay(5).discountPercent(25).build(),
+                RentalRequest.builder().tool(Tool.JAKD).checkoutDate(LocalDate.of(2020, 12, 31)).rentalDay(1).holidayCalendar("CA").build(),
+                new RentalRequest());
+
+        for (RentalRequest request : requests) {
+            String json = objectMapper.writeValueAsString(request);
+            assertEquals(beanMapper.writeValueAsString(request), json);
+            assertEquals(request, objectMapper.readValue(json, RentalRequest.class));
+        }
+    }
+
+    @Test
+    void testReadsRequestsLikeBeanDeserialization() {
+        List<String> bodies = List.of(
+                "{\"tool\": \"LADW\", \"rentalDay\": 3, \"discountPercent\": 10, \"checkoutDate\": \"7/2/20\"}",
+                "{\"checkoutDate\": \"07/02/20\", \"tool\": \"JAKR\", \"rentalDay\": \"4\", \"discountPercent\": null}",
+                "{\"tool\": \"CHNS\", \"rentalDay\": 2.0, \"checkoutDate\": \" 2/31/20 \", \"holidayCalendar\": \"CA\"}",
+                "{\"tool\": null, \"checkoutDate\": \"\"}",
+                "{}");
+
+        for (String body : bodies) {
+            assertEquals(beanMapper.readValue(body, RentalRequest.class), objectMapper.readValue(body, RentalRequest.class), body);
+        }
+    }
+
+    @Test
+    void testRejectsInvalidRequests() {
+        assertThrows(DatabindException.class,
+                () -> objectMapper.readValue("{\"tool\": \"XXXX\", \"checkoutDate\": \"7/2/20\"}", RentalRequest.class));
+        assertThrows(DatabindException.class,
+                () -> objectMapper.readValue("{\"tool\": \"LADW\", \"checkoutDate\": \"13/2/20\"}", RentalRequest.class));
+        assertThrows(DatabindException.class,
+                () -> objectMapper.readValue("{\"tool\": \"LADW\", \"checkoutDate\": \"7/2/2020\"}", RentalRequest.class));
+        assertThrows(DatabindException.class,
+                () -> objectMapper.readValue("[\"LADW\"]", RentalRequest.class));
+    }
+}
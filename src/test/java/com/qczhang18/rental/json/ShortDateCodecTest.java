@@ -0,0 +1,85 @@
+package com.qczhang18.rental.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ShortDateCodec
+ * Verifies it reads and writes exactly what the equivalent DateTimeFormatter patterns do
+ */
+class ShortDateCodecTest {
+
+    private static final DateTimeFormatter SHORT = DateTimeFormatter.ofPattern("M/d/yy");
+    private static final DateTimeFormatter PADDED = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    private static String expected(String text, DateTimeFormatter formatter) {
+        try {
+            return LocalDate.parse(text, formatter).toString();
+        } catch (DateTimeException exception) {
+            return "invalid";
+        }
+    }
+
+    private static String actual(String text, boolean padded) {
+        try {
+            return (padded ? ShortDateCodec.parsePadded(text) : ShortDateCodec.parse(text)).toString();
+        } catch (DateTimeParseException exception) {
+            return "invalid";
+        }
+    }
+
+    @Test
+    void testParsesLikeTheFormatter() {
+        for (int year = 0; year < 100; year++) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    String text = month + "/" + day + "/" + String.format("%02d", year);
+                    assertEquals(expected(text, SHORT), actual(text, false), text);
+                    String padded = String.format("%02d/%02d/%02d", month, day, year);
+                    assertEquals(expected(padded, SHORT), actual(padded, false), padded);
+                    assertEquals(expected(padded, PADDED), actual(padded, true), padded);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRejectsWhatTheFormatterRejects() {
+        List<String> fields = List.of("", "0", "7", "07", "007", "31", "+7", "-7", " 7", "7 ", "a", "2020");
+        for (String month : fields) {
+            for (String day : fields) {
+                for (String year : fields) {
+                    String text = month + "/" + day + "/" + year;
+                    assertEquals(expected(text, SHORT), actual(text, false), text);
+                    assertEquals(expected(text, PADDED), actual(text, true), text);
+                }
+            }
+        }
+        assertEquals("invalid", actual("7-2-20", false));
+        assertEquals("invalid", actual("7/2/20/", false));
+    }
+
+    @Test
+    void testMovesDaysPastTheEndOfTheMonthBack() {
+        assertEquals(LocalDate.of(2020, 2, 29), ShortDateCodec.parse("2/31/20"));
+        assertEquals(LocalDate.of(2021, 2, 28), ShortDateCodec.parse("2/30/21"));
+        assertEquals(LocalDate.of(2024, 4, 30), ShortDateCodec.parse("4/31/24"));
+    }
+
+    @Test
+    void testFormatsLikeTheFormatter() {
+        for (LocalDate date = LocalDate.of(1890, 1, 1); date.getYear() < 2300; date = date.plusDays(1)) {
+            assertEquals(PADDED.format(date), ShortDateCodec.format(date));
+            // Second call comes from the cache
+            assertEquals(PADDED.format(date), ShortDateCodec.format(date));
+            assertEquals(SHORT.format(date), ShortDateCodec.formatUnpadded(date));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.qczhang18.rental.service;
+
+import com.qczhang18.rental.audit.AuditLog;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.util.HolidayCalendars;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPricingServiceTest {
+
+    private final RentalService rentalService = new RentalService();
+    private final BatchPricingService batchService = new BatchPricingService(rentalService, 4, 1024);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void testPreservesInputOrder() {
+        List<RentalRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            requests.add(RentalRequest.builder()
+                    .tool(Tool.values()[i % Tool.values().length])
+                    .checkoutDate(LocalDate.of(2015, 1, 1).plusDays(i % 3650))
+                    .rentalDay(1 + i % 400)
+                    // Every 97th request has an invalid discount
+                    .discountPercent(i % 97 == 0 ? 101 : i % 101)
+                    .build());
+        }
+
+        List<RentalResponse> responses = batchService.priceAll(requests);
+
+        assertEquals(requests.size(), responses.size());
+        for (int i = 0; i < requests.size(); i++) {
+            RentalResponse expected = rentalService.quote(requests.get(i), false);
+            assertEquals(expected, responses.get(i), "response " + i);
+        }
+    }
+
+    @Test
+    void testNonRandomAccessInput() {
+        List<RentalRequest> requests = new LinkedList<>();
+        for (int day = 1; day <= 200; day++) {
+            requests.add(RentalRequest.builder()
+                    .tool(Tool.LADW)
+                    .checkoutDate(LocalDate.of(2020, 7, 2))
+                    .rentalDay(day)
+                    .build());
+        }
+
+        List<RentalResponse> responses = batchService.priceAll(requests);
+
+        for (int day = 1; day <= 200; day++) {
+            assertEquals(day, responses.get(day - 1).getAgreement().getRentalDays());
+        }
+    }
+
+    @Test
+    void testLargeBatchDoesNotReserve() throws IOException {
+        AgreementJournal journal = new AgreementJournal(true, directory.toString(), DataSize.ofKilobytes(64), Duration.ofMillis(50));
+        InventoryService inventory = new InventoryService(Map.of("LADW", 1));
+        RentalService booking = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                journal, inventory, AuditLog.disabled());
+        BatchPricingService batch = new BatchPricingService(booking, 4, 1024);
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .build();
+
+        List<RentalResponse> responses = batch.priceAll(Collections.nCopies(10_000, request));
+        batch.shutdown();
+
+        assertTrue(responses.stream().allMatch(response -> "success".equals(response.getMessage())));
+        assertTrue(responses.stream().allMatch(response -> response.getAgreementId() == null));
+        assertEquals(0, journal.getLastId());
+        // The only ladder is still free to book
+        assertEquals("success", booking.process(request).getMessage());
+        journal.close();
+    }
+
+    @Test
+    void testEmptyBatch() {
+        assertTrue(batchService.priceAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testParallelism() {
+        assertEquals(4, batchService.getParallelism());
+    }
+}
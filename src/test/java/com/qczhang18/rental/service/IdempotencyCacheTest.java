@@ -0,0 +1,173 @@
+package com.qczhang18.rental.service;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for IdempotencyCache
+ * Verifies that a key is processed once, duplicates share its response and failures can be retried
+ */
+class IdempotencyCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IdempotencyCache cache = new IdempotencyCache(100, Duration.ofMinutes(1), Duration.ofSeconds(10), registry);
+    private final AtomicInteger checkouts = new AtomicInteger();
+    private final Supplier<RentalResponse> success = () -> response("success", checkouts.incrementAndGet());
+    private final Supplier<RentalResponse> failure = () -> response("tool unavailable, please choose other dates : ", checkouts.incrementAndGet());
+
+    @Test
+    void testRetryGetsTheFirstResponse() {
+        RentalResponse first = cache.process("key-1", request(3), false, success);
+        RentalResponse second = cache.process("key-1", request(3), false, success);
+
+        assertSame(first, second);
+        assertEquals(1, checkouts.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "rental.idempotency", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testDifferentKeysAreProcessedSeparately() {
+        cache.process("key-1", request(3), false, success);
+        cache.process("key-2", request(3), false, success);
+        cache.process(null, request(3), false, success);
+
+        assertEquals(3, checkouts.get());
+    }
+
+    @Test
+    void testConcurrentDuplicateWaitsForTheFirst() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<RentalResponse> slow = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return success.get();
+        };
+
+        CompletableFuture<RentalResponse> first = CompletableFuture.supplyAsync(() -> cache.process("key-1", request(3), false, slow));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<RentalResponse> duplicate = CompletableFuture.supplyAsync(() -> cache.process("key-1", request(3), false, success));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+
+        assertSame(first.get(10, TimeUnit.SECONDS), duplicate.get(10, TimeUnit.SECONDS));
+        assertEquals(1, checkouts.get());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequest() {
+        cache.process("key-1", request(3), false, success);
+
+        RentalResponse other = cache.process("key-1", request(4), false, success);
+        RentalResponse explained = cache.process("key-1", request(3), true, success);
+
+        assertEquals("validation error, please check your request : Idempotency key \"key-1\" was already used for a different request ", other.getMessage());
+        assertNull(other.getAgreement());
+        assertTrue(explained.getMessage().startsWith("validation error"));
+        assertEquals(1, checkouts.get());
+    }
+
+    @Test
+    void testFailureIsNotKept() {
+        cache.process("key-1", request(3), false, failure);
+        RentalResponse retry = cache.process("key-1", request(3), false, success);
+
+        assertEquals("success", retry.getMessage());
+        assertEquals(2, checkouts.get());
+        assertSame(retry, cache.process("key-1", request(3), false, success));
+    }
+
+    @Test
+    void testExceptionReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> cache.process("key-1", request(3), false, () -> {
+            throw new IllegalStateException("journal is full");
+        }));
+
+        assertEquals("success", cache.process("key-1", request(3), false, success).getMessage());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testDuplicateGivesUpAfterTheWaitTimeout() throws Exception {
+        IdempotencyCache impatient = new IdempotencyCache(100, Duration.ofMinutes(1), Duration.ofMillis(20), registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<RentalResponse> first = CompletableFuture.supplyAsync(() -> impatient.process("key-1", request(3), false, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return success.get();
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        RentalResponse duplicate = impatient.process("key-1", request(3), false, success);
+        release.countDown();
+
+        assertEquals("request in progress, please retry later : Idempotency key \"key-1\" is still being processed ", duplicate.getMessage());
+        assertEquals("success", first.get(10, TimeUnit.SECONDS).getMessage());
+        assertEquals(1, checkouts.get());
+    }
+
+    @Test
+    void testInvalidKey() {
+        RentalResponse blank = cache.process(" ", request(3), false, success);
+        RentalResponse tooLong = cache.process("k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1), request(3), false, success);
+
+        assertTrue(blank.getMessage().startsWith("validation error"));
+        assertTrue(tooLong.getMessage().startsWith("validation error"));
+        assertEquals(0, checkouts.get());
+    }
+
+    @Test
+    void testDisabledAlwaysProcesses() {
+        IdempotencyCache disabled = IdempotencyCache.disabled();
+
+        disabled.process("key-1", request(3), false, success);
+        disabled.process("key-1", request(3), false, success);
+
+        assertEquals(2, checkouts.get());
+        assertEquals(0, disabled.size());
+    }
+
+    private static RentalResponse response(String message, int checkout) {
+        RentalResponse rentalResponse = new RentalResponse();
+        rentalResponse.setMessage(message);
+        if (message.equals("success")) {
+            rentalResponse.setAgreement(Agreement.builder().toolCode("LADW").rentalDays(checkout).build());
+        }
+        return rentalResponse;
+    }
+
+    private static RentalRequest request(int rentalDay) {
+        return RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(rentalDay)
+                .discountPercent(10)
+                .build();
+    }
+}
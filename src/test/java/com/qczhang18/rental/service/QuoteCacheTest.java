@@ -0,0 +1,75 @@
+package com.qczhang18.rental.service;
+
+import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.Tool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QuoteCache cache = new QuoteCache(100, Duration.ofMinutes(1), registry);
+    private final AtomicInteger pricings = new AtomicInteger();
+    private final Function<RentalRequest, Agreement> pricing = request -> {
+        pricings.incrementAndGet();
+        return Agreement.builder().toolCode(request.getTool().getCode()).rentalDays(request.getRentalDay()).build();
+    };
+
+    @Test
+    void testRepeatedQuoteIsCached() {
+        Agreement first = cache.get(request(Tool.LADW, 3), "US", pricing);
+        Agreement second = cache.get(request(Tool.LADW, 3), "US", pricing);
+
+        assertSame(first, second);
+        assertEquals(1, pricings.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "rental.quotes", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testDifferentInputsAreDifferentQuotes() {
+        cache.get(request(Tool.LADW, 3), "US", pricing);
+        cache.get(request(Tool.LADW, 4), "US", pricing);
+        cache.get(request(Tool.JAKR, 3), "US", pricing);
+
+        assertEquals(3, pricings.get());
+    }
+
+    @Test
+    void testInvalidateAll() {
+        cache.get(request(Tool.LADW, 3), "US", pricing);
+        cache.invalidateAll();
+        cache.get(request(Tool.LADW, 3), "US", pricing);
+
+        assertEquals(2, pricings.get());
+    }
+
+    @Test
+    void testDisabledAlwaysPrices() {
+        QuoteCache disabled = QuoteCache.disabled();
+
+        disabled.get(request(Tool.LADW, 3), "US", pricing);
+        disabled.get(request(Tool.LADW, 3), "US", pricing);
+
+        assertEquals(2, pricings.get());
+        assertEquals(0, disabled.size());
+    }
+
+    private static RentalRequest request(Tool tool, int rentalDay) {
+        return RentalRequest.builder()
+                .tool(tool)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(rentalDay)
+                .discountPercent(10)
+                .build();
+    }
+}
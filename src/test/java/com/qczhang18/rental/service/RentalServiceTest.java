@@ -1,15 +1,39 @@
 package com.qczhang18.rental.service;
 
+import com.qczhang18.rental.audit.AuditLog;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
 import com.qczhang18.rental.model.Agreement;
+import com.qczhang18.rental.model.CartItem;
+import com.qczhang18.rental.model.CartRequest;
+import com.qczhang18.rental.model.CartResponse;
+import com.qczhang18.rental.model.ChargeDay;
+import com.qczhang18.rental.model.OptimizeRequest;
+import com.qczhang18.rental.model.OptimizeResponse;
 import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
 import com.qczhang18.rental.model.Tool;
 import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.util.ChargeDayIndex;
+import com.qczhang18.rental.util.HolidayCalendar;
+import com.qczhang18.rental.util.HolidayCalendars;
+import com.qczhang18.rental.util.HolidayRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +42,9 @@ class RentalServiceTest {
 
     private final RentalService service = new RentalService();
 
+    @TempDir
+    Path directory;
+
     // ==================== Charging Logic Tests - Ladder ====================
 
     @Test
@@ -462,4 +489,378 @@ class RentalServiceTest {
         // Final charge
         assertEquals(bd.apply(1.49), agreement.getFinalCharge());
     }
+
+    // ==================== Explain Trace Tests ====================
+
+    @Test
+    void testExplain_IndependenceDayWeek() {
+        // July 1-8, 2024: Mon, Tue, Wed, Thu(Holiday), Fri, Sat, Sun, Mon
+        List<ChargeDay> trace = service.explain(LocalDate.of(2024, 7, 1), LocalDate.of(2024, 7, 8), Type.Chainsaw);
+
+        assertEquals(8, trace.size());
+        assertEquals(ChargeDay.Classification.HOLIDAY, trace.get(3).getClassification());
+        assertEquals("Independence Day", trace.get(3).getHoliday());
+        assertTrue(trace.get(3).isCharged(), "Chainsaw should charge on Independence Day");
+        assertEquals(ChargeDay.Classification.WEEKEND, trace.get(5).getClassification());
+        assertFalse(trace.get(5).isCharged(), "Chainsaw should NOT charge on weekends");
+        assertEquals(8, trace.get(7).getDayNumber());
+    }
+
+    @Test
+    void testProcess_TraceOnlyWhenRequested() {
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .discountPercent(10)
+                .build();
+
+        assertNull(service.process(request).getTrace());
+
+        RentalResponse explained = service.process(request, true);
+        assertEquals("success", explained.getMessage());
+        assertEquals(3, explained.getTrace().size());
+        assertEquals(explained.getAgreement().getChargeDays(),
+                explained.getTrace().stream().filter(ChargeDay::isCharged).count());
+    }
+
+    @Test
+    void testProcess_TraceTooLong() {
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(RentalService.MAX_EXPLAIN_DAYS + 1)
+                .build();
+
+        RentalResponse response = service.process(request, true);
+
+        assertTrue(response.getMessage().startsWith("validation error"));
+        assertNull(response.getTrace());
+    }
+
+    // ==================== Metrics Tests ====================
+
+    @Test
+    void testProcess_RecordsMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RentalService metered = new RentalService(new HolidayCalendars(), new RentalMetrics(registry), QuoteCache.disabled(),
+                AgreementJournal.disabled(), InventoryService.unlimited(), AuditLog.disabled());
+        RentalRequest valid = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .rentalDay(9)
+                .build();
+        RentalRequest invalid = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2015, 7, 2))
+                .rentalDay(9)
+                .discountPercent(101)
+                .build();
+
+        metered.process(valid);
+        metered.process(valid);
+        metered.process(invalid);
+        metered.process(null);
+
+        assertEquals(2, registry.get("rental.checkouts").tags("tool", "JAKR", "outcome", "success").counter().count());
+        assertEquals(1, registry.get("rental.checkouts").tags("tool", "JAKR", "outcome", "validation_error").counter().count());
+        assertEquals(1, registry.get("rental.checkouts").tags("tool", "unknown", "outcome", "validation_error").counter().count());
+        assertEquals(2, registry.get("rental.checkout").timer().count());
+        assertEquals(18, registry.get("rental.rental.days").summary().totalAmount());
+        assertEquals(10, registry.get("rental.charge.days").summary().totalAmount());
+    }
+
+    // ==================== Inventory Tests ====================
+
+    @Test
+    void testProcess_ReservesUnits() {
+        RentalService limited = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                AgreementJournal.disabled(), new InventoryService(Map.of("LADW", 1)), AuditLog.disabled());
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3)
+                .build();
+
+        assertEquals("success", limited.process(request).getMessage());
+
+        RentalResponse overbooked = limited.process(request);
+        assertEquals("tool unavailable, please choose other dates : No LADW is available from 07/02/20 to 07/05/20 ",
+                overbooked.getMessage());
+        assertNull(overbooked.getAgreement());
+
+        // Quotes never reserve
+        assertEquals("success", limited.quote(request, false).getMessage());
+    }
+
+    // ==================== Holiday Calendar Tests ====================
+
+    @Test
+    void testProcess_NamedHolidayCalendar() {
+        HolidayCalendar canada = new HolidayCalendar(List.of(
+                new HolidayRule.FixedDate("Canada Day", MonthDay.of(7, 1), HolidayRule.Observance.NEXT_WEEKDAY)),
+                2000, 2030);
+        RentalService calendars = new RentalService(
+                new HolidayCalendars(Map.of("US", new ChargeDayIndex(), "CA", new ChargeDayIndex(canada, 2000, 2030)), "US"),
+                RentalMetrics.disabled(), QuoteCache.disabled(), AgreementJournal.disabled(), InventoryService.unlimited(), AuditLog.disabled());
+        // Jackhammer from Tue 06/30/20 to Mon 07/06/20: Canada Day is Wed 07/01, Independence Day observed Fri 07/03
+        RentalRequest.RentalRequestBuilder request = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2020, 6, 29))
+                .rentalDay(7);
+
+        RentalResponse us = calendars.process(request.build(), true);
+        RentalResponse ca = calendars.process(request.holidayCalendar("CA").build(), true);
+
+        assertEquals(4, us.getAgreement().getChargeDays());
+        assertEquals("Independence Day", us.getTrace().get(3).getHoliday());
+        assertEquals(4, ca.getAgreement().getChargeDays());
+        assertEquals("Canada Day", ca.getTrace().get(1).getHoliday());
+        assertEquals(ChargeDay.Classification.WEEKDAY, ca.getTrace().get(3).getClassification());
+    }
+
+    @Test
+    void testQuote_DefaultCalendarSharesCachedQuotes() {
+        QuoteCache quoteCache = new QuoteCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        RentalService cached = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), quoteCache,
+                AgreementJournal.disabled(), InventoryService.unlimited(), AuditLog.disabled());
+        RentalRequest.RentalRequestBuilder request = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2020, 6, 29))
+                .rentalDay(7);
+
+        Agreement unnamed = cached.quote(request.build(), false).getAgreement();
+        Agreement named = cached.quote(request.holidayCalendar(HolidayCalendars.DEFAULT_NAME).build(), false).getAgreement();
+
+        assertSame(unnamed, named);
+        assertEquals(1, quoteCache.stats().missCount());
+    }
+
+    @Test
+    void testProcess_UnknownHolidayCalendar() {
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.JAKR)
+                .checkoutDate(LocalDate.of(2020, 6, 29))
+                .rentalDay(7)
+                .holidayCalendar("XX")
+                .build();
+
+        assertEquals("validation error, please check your request : Holiday calendar \"XX\" is unknown. Must be one of [US] ",
+                service.process(request).getMessage());
+    }
+
+    // ==================== Optimize Tests ====================
+
+    @Test
+    void testOptimize_AvoidsWeekend() {
+        // Jackhammer for 3 days, checkout Wed 06/05/24 to Sun 06/09/24
+        OptimizeRequest request = OptimizeRequest.builder()
+                .tool(Tool.JAKR)
+                .rentalDay(3)
+                .earliestCheckoutDate(LocalDate.of(2024, 6, 5))
+                .latestCheckoutDate(LocalDate.of(2024, 6, 9))
+                .build();
+
+        OptimizeResponse response = service.optimize(request);
+
+        assertEquals("success", response.getMessage());
+        // Thursday and Friday checkouts only charge Friday or Monday
+        assertEquals(List.of(LocalDate.of(2024, 6, 6), LocalDate.of(2024, 6, 7)), response.getCheckoutDates());
+        assertEquals(LocalDate.of(2024, 6, 6), response.getAgreement().getCheckoutDate());
+        assertEquals(1, response.getAgreement().getChargeDays());
+        assertEquals(1, response.getChargeDaysSaved());
+        assertEquals(new BigDecimal("2.99"), response.getSavings());
+    }
+
+    @Test
+    void testOptimize_AvoidsHoliday() {
+        // Jackhammer for 1 day around Independence Day 2024 (Thursday)
+        OptimizeRequest request = OptimizeRequest.builder()
+                .tool(Tool.JAKD)
+                .rentalDay(1)
+                .discountPercent(10)
+                .earliestCheckoutDate(LocalDate.of(2024, 7, 3))
+                .latestCheckoutDate(LocalDate.of(2024, 7, 3))
+                .build();
+
+        OptimizeResponse response = service.optimize(request);
+
+        assertEquals(List.of(LocalDate.of(2024, 7, 3)), response.getCheckoutDates());
+        assertEquals(0, response.getAgreement().getChargeDays());
+        assertEquals(new BigDecimal("0.00"), response.getSavings());
+    }
+
+    @Test
+    void testOptimize_MatchesCheckoutOnEveryDate() {
+        OptimizeRequest request = OptimizeRequest.builder()
+                .tool(Tool.LADW)
+                .rentalDay(10)
+                .discountPercent(25)
+                .earliestCheckoutDate(LocalDate.of(2024, 1, 1))
+                .latestCheckoutDate(LocalDate.of(2024, 12, 31))
+                .build();
+
+        OptimizeResponse response = service.optimize(request);
+
+        BigDecimal cheapest = null;
+        List<LocalDate> expected = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+            BigDecimal charge = service.checkout(request.toRentalRequest(date)).getFinalCharge();
+            if (cheapest == null || charge.compareTo(cheapest) < 0) {
+                cheapest = charge;
+                expected.clear();
+            }
+            if (charge.compareTo(cheapest) == 0) {
+                expected.add(date);
+            }
+        }
+        assertEquals(expected, response.getCheckoutDates());
+        assertEquals(cheapest, response.getAgreement().getFinalCharge());
+    }
+
+    @Test
+    void testOptimize_FullDiscountMakesEveryDateCheapest() {
+        // Jackhammer for 3 days over a week with weekends, all free at 100% off
+        OptimizeRequest request = OptimizeRequest.builder()
+                .tool(Tool.JAKR)
+                .rentalDay(3)
+                .discountPercent(100)
+                .earliestCheckoutDate(LocalDate.of(2024, 6, 5))
+                .latestCheckoutDate(LocalDate.of(2024, 6, 11))
+                .build();
+
+        OptimizeResponse response = service.optimize(request);
+
+        assertEquals("success", response.getMessage());
+        assertEquals(LocalDate.of(2024, 6, 5).datesUntil(LocalDate.of(2024, 6, 12)).toList(), response.getCheckoutDates());
+        assertEquals(LocalDate.of(2024, 6, 5), response.getAgreement().getCheckoutDate());
+        assertEquals(new BigDecimal("0.00"), response.getAgreement().getFinalCharge());
+        assertEquals(0, response.getChargeDaysSaved());
+        assertEquals(new BigDecimal("0.00"), response.getSavings());
+    }
+
+    @Test
+    void testOptimize_InvalidWindow() {
+        OptimizeRequest.OptimizeRequestBuilder request = OptimizeRequest.builder()
+                .tool(Tool.LADW)
+                .rentalDay(3)
+                .earliestCheckoutDate(LocalDate.of(2024, 7, 3));
+
+        assertTrue(service.optimize(request.latestCheckoutDate(LocalDate.of(2024, 7, 2)).build())
+                .getMessage().startsWith("validation error"));
+        assertTrue(service.optimize(request.latestCheckoutDate(LocalDate.of(2044, 7, 2)).build())
+                .getMessage().startsWith("validation error"));
+        assertTrue(service.optimize(request.latestCheckoutDate(LocalDate.of(2024, 7, 4)).rentalDay(0).build())
+                .getMessage().startsWith("validation error"));
+    }
+
+    // ==================== Cart Tests ====================
+
+    @Test
+    void testCheckoutCart_MatchesSingleCheckouts() {
+        // Every tool over Independence Day weekend 2020
+        CartRequest cart = CartRequest.builder()
+                .items(List.of(new CartItem(Tool.LADW, 10), new CartItem(Tool.CHNS, 0),
+                        new CartItem(Tool.JAKD, 20), new CartItem(Tool.JAKR, 50)))
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(9)
+                .build();
+
+        CartResponse response = service.checkoutCart(cart);
+
+        assertEquals("success", response.getMessage());
+        assertEquals(4, response.getItems().size());
+        BigDecimal preDiscountCharge = BigDecimal.ZERO;
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        BigDecimal finalCharge = BigDecimal.ZERO;
+        for (int i = 0; i < cart.getItems().size(); i++) {
+            Agreement expected = service.checkout(cart.toRentalRequest(cart.getItems().get(i)));
+            assertEquals(expected, response.getItems().get(i));
+            preDiscountCharge = preDiscountCharge.add(expected.getPreDiscountCharge());
+            discountAmount = discountAmount.add(expected.getDiscountAmount());
+            finalCharge = finalCharge.add(expected.getFinalCharge());
+        }
+        assertEquals(preDiscountCharge, response.getPreDiscountCharge());
+        assertEquals(discountAmount, response.getDiscountAmount());
+        assertEquals(finalCharge, response.getFinalCharge());
+    }
+
+    @Test
+    void testCheckoutCart_ReservesAllOrNothing() {
+        InventoryService inventory = new InventoryService(Map.of("LADW", 1, "CHNS", 1));
+        RentalService limited = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                AgreementJournal.disabled(), inventory, AuditLog.disabled());
+        CartRequest.CartRequestBuilder cart = CartRequest.builder()
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3);
+
+        // The second ladder cannot be reserved, so the chainsaw is released again
+        CartResponse overbooked = limited.checkoutCart(cart
+                .items(List.of(new CartItem(Tool.CHNS, 0), new CartItem(Tool.LADW, 0), new CartItem(Tool.LADW, 0)))
+                .build());
+        assertEquals("tool unavailable, please choose other dates : No LADW is available from 07/02/20 to 07/05/20 ",
+                overbooked.getMessage());
+        assertNull(overbooked.getItems());
+
+        assertEquals("success", limited.checkoutCart(cart
+                .items(List.of(new CartItem(Tool.CHNS, 0), new CartItem(Tool.LADW, 0)))
+                .build()).getMessage());
+    }
+
+    @Test
+    void testProcess_JournalsLongestRental() throws IOException {
+        AgreementJournal journal = new AgreementJournal(true, directory.toString(), DataSize.ofKilobytes(64), Duration.ofMillis(50));
+        RentalService journaled = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                journal, InventoryService.unlimited(), AuditLog.disabled());
+        RentalRequest request = RentalRequest.builder()
+                .tool(Tool.LADW)
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(Integer.MAX_VALUE)
+                .build();
+
+        // The due date's epoch day does not fit an int
+        RentalResponse response = journaled.process(request);
+
+        assertEquals("success", response.getMessage());
+        assertEquals(response.getAgreement(), journal.find(response.getAgreementId()).orElseThrow());
+        journal.close();
+    }
+
+    @Test
+    void testCheckoutCart_JournalsAllOrNothing() throws IOException {
+        AgreementJournal journal = new AgreementJournal(true, directory.toString(), DataSize.ofKilobytes(1), Duration.ofMillis(50));
+        InventoryService inventory = new InventoryService(Map.of("LADW", RentalService.MAX_CART_ITEMS));
+        RentalService journaled = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(), QuoteCache.disabled(),
+                journal, inventory, AuditLog.disabled());
+        CartRequest.CartRequestBuilder cart = CartRequest.builder()
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3);
+
+        // The full cart does not fit a journal segment, so none of it is journaled or left reserved
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < RentalService.MAX_CART_ITEMS; i++) {
+            items.add(new CartItem(Tool.LADW, 0));
+        }
+        assertEquals("internal server error, please contact support", journaled.checkoutCart(cart.items(items).build()).getMessage());
+        assertEquals(0, journal.getLastId());
+
+        CartResponse response = journaled.checkoutCart(cart.items(items.subList(0, 2)).build());
+        assertEquals("success", response.getMessage());
+        assertEquals(List.of(1L, 2L), response.getAgreementIds());
+        journal.close();
+    }
+
+    @Test
+    void testCheckoutCart_Invalid() {
+        CartRequest.CartRequestBuilder cart = CartRequest.builder()
+                .checkoutDate(LocalDate.of(2020, 7, 2))
+                .rentalDay(3);
+
+        assertEquals("validation error, please check your request : cart is empty",
+                service.checkoutCart(cart.items(List.of()).build()).getMessage());
+        assertTrue(service.checkoutCart(cart.items(List.of(new CartItem(Tool.LADW, 0), new CartItem(Tool.JAKR, 101))).build())
+                .getMessage().startsWith("validation error"));
+        assertTrue(service.checkoutCart(cart.items(List.of(new CartItem(Tool.LADW, 0))).holidayCalendar("XX").build())
+                .getMessage().startsWith("validation error"));
+    }
 }
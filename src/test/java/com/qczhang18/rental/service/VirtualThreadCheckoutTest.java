@@ -0,0 +1,116 @@
+package com.qczhang18.rental.service;
+
+import com.qczhang18.rental.audit.AuditLog;
+import com.qczhang18.rental.inventory.InventoryService;
+import com.qczhang18.rental.journal.AgreementJournal;
+import com.qczhang18.rental.metrics.RentalMetrics;
+import com.qczhang18.rental.model.RentalRequest;
+import com.qczhang18.rental.model.RentalResponse;
+import com.qczhang18.rental.model.Tool;
+import com.qczhang18.rental.util.HolidayCalendars;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Test cases for checking out on virtual threads
+ * Verifies that concurrent checkouts through the journal, the inventory and a full audit buffer never
+ * pin their carrier thread, using the JFR event the JVM records whenever a pinned virtual thread blocks
+ */
+class VirtualThreadCheckoutTest {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    @TempDir
+    Path directory;
+
+    private int recordings;
+
+    @Test
+    void testConcurrentCheckoutsDoNotPin() throws Exception {
+        assumeTrue(monitorsPin(), "This JVM does not pin virtual threads that block in a monitor");
+
+        AuditLog auditLog = new AuditLog(true, directory.resolve("audit").toString(), 2, 1, AuditLog.Overflow.BLOCK,
+                DataSize.ofKilobytes(64), 2, Duration.ofMillis(1), JsonMapper.builder().build(), new SimpleMeterRegistry());
+        AgreementJournal journal = new AgreementJournal(true, directory.resolve("journal").toString(),
+                DataSize.ofKilobytes(64), Duration.ofMillis(1));
+        RentalService service = new RentalService(new HolidayCalendars(), RentalMetrics.disabled(),
+                new QuoteCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()), journal,
+                new InventoryService(Map.of(), 2), auditLog);
+        List<Future<RentalResponse>> responses = new ArrayList<>();
+
+        List<RecordedEvent> pinned = record(() -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 2000; i++) {
+                    RentalRequest request = RentalRequest.builder()
+                            .tool(i % 2 == 0 ? Tool.LADW : Tool.JAKR)
+                            .checkoutDate(LocalDate.of(2020, 1, 1).plusDays(i % 50))
+                            .rentalDay(5)
+                            .discountPercent(10)
+                            .build();
+                    responses.add(executor.submit(() -> service.process(request)));
+                }
+            }
+        });
+        auditLog.close();
+        journal.close();
+
+        assertEquals(List.of(), pinned.stream().map(RecordedEvent::toString).toList());
+        long successes = 0;
+        for (Future<RentalResponse> response : responses) {
+            successes += "success".equals(response.get().getMessage()) ? 1 : 0;
+        }
+        assertTrue(successes > 0);
+        assertEquals(successes, auditLog.getWritten());
+    }
+
+    /**
+     * Makes sure the recording would catch pinning on this JVM, by pinning on purpose
+     */
+    private boolean monitorsPin() throws IOException {
+        Object monitor = new Object();
+        return !record(() -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                executor.submit(() -> {
+                    synchronized (monitor) {
+                        Thread.sleep(1);
+                    }
+                    return null;
+                });
+            }
+        }).isEmpty();
+    }
+
+    private List<RecordedEvent> record(Runnable workload) throws IOException {
+        Path file = directory.resolve("pinning-" + recordings++ + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(PINNED))
+                .toList();
+    }
+}
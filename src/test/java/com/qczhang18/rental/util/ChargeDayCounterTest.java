@@ -0,0 +1,88 @@
+package com.qczhang18.rental.util;
+
+import com.qczhang18.rental.model.DayCounts;
+import com.qczhang18.rental.model.Type;
+import com.qczhang18.rental.service.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ChargeDayCounter
+ * Verifies the arithmetic count matches the day by day walk of RentalService
+ */
+class ChargeDayCounterTest {
+
+    private final RentalService service = new RentalService();
+
+    @Test
+    void testMatchesDayByDayWalk() {
+        // Every start day across two years with lengths covering partial weeks, holidays and year ends
+        LocalDate first = LocalDate.of(2025, 6, 1);
+        int[] lengths = {1, 2, 6, 7, 8, 30, 95, 366, 800};
+
+        for (int offset = 0; offset < 730; offset += 3) {
+            LocalDate start = first.plusDays(offset);
+            for (int length : lengths) {
+                LocalDate due = start.plusDays(length - 1);
+                for (Type type : Type.values()) {
+                    assertEquals(service.getChargingDates(start, due, type).size(),
+                            ChargeDayCounter.countChargeDays(start, due, type),
+                            () -> type + " from " + start + " to " + due);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testClassifyIndependenceDayWeek() {
+        // July 1-8, 2024: Mon, Tue, Wed, Thu(Holiday), Fri, Sat, Sun, Mon
+        DayCounts counts = ChargeDayCounter.classify(LocalDate.of(2024, 7, 1), LocalDate.of(2024, 7, 8));
+
+        assertEquals(5, counts.getWeekdayCount());
+        assertEquals(2, counts.getWeekendCount());
+        assertEquals(1, counts.getHolidayCount());
+        assertEquals(8, counts.getTotalDays());
+    }
+
+    @Test
+    void testDueDateBeforeStartDate() {
+        DayCounts counts = ChargeDayCounter.classify(LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 1));
+
+        assertEquals(DayCounts.EMPTY, counts);
+    }
+
+    @Test
+    void testMillionDayRental() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate due = start.plusDays(999_999);
+
+        DayCounts counts = ChargeDayCounter.classify(start, due);
+
+        // Due date is November 27, 4761, so every year of the period contributes both holidays
+        assertEquals(LocalDate.of(4761, 11, 27), due);
+        assertEquals(1_000_000, counts.getTotalDays());
+        assertEquals(2L * 2738, counts.getHolidayCount());
+        assertEquals(994_524, ChargeDayCounter.countChargeDays(start, due, Type.Ladder));
+    }
+
+    @Test
+    void testLongestRental() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate due = start.plusDays(Integer.MAX_VALUE - 1);
+
+        DayCounts counts = ChargeDayCounter.classify(start, due);
+
+        // Due date is July 10, 5881634, far beyond the cached years; every full year contributes both holidays
+        assertEquals(LocalDate.of(5_881_634, 7, 10), due);
+        long lastYearHolidays = 0;
+        for (LocalDate date = due.withDayOfYear(1); !date.isAfter(due); date = date.plusDays(1)) {
+            lastYearHolidays += ChargingDateUtil.isIndependenceDay(date) || ChargingDateUtil.isLaborDay(date) ? 1 : 0;
+        }
+        assertEquals(Integer.MAX_VALUE, counts.getTotalDays());
+        assertEquals(2L * (due.getYear() - 2024) + lastYearHolidays, counts.getHolidayCount());
+        assertEquals(counts.getTotalDays() - counts.getHolidayCount(), counts.chargeDays(Type.Ladder));
+    }
+}
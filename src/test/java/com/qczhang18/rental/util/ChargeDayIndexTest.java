@@ -0,0 +1,69 @@
+package com.qczhang18.rental.util;
+
+import com.qczhang18.rental.model.Type;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for ChargeDayIndex
+ * Verifies prefix-sum lookups inside the horizon and the fallback outside of it
+ */
+class ChargeDayIndexTest {
+
+    private final ChargeDayIndex index = new ChargeDayIndex(HolidayCalendar.DEFAULT, 2020, 2025);
+
+    @Test
+    void testMatchesCounterAcrossHorizon() {
+        // Periods fully inside, straddling either end, and fully outside the 2020-2025 horizon
+        LocalDate first = LocalDate.of(2019, 10, 1);
+        for (int offset = 0; offset < 365 * 7; offset += 11) {
+            LocalDate start = first.plusDays(offset);
+            for (int length : new int[]{1, 5, 9, 64, 500}) {
+                LocalDate due = start.plusDays(length - 1);
+                for (Type type : Type.values()) {
+                    assertEquals(ChargeDayCounter.countChargeDays(start, due, type),
+                            index.countChargeDays(start, due, type),
+                            () -> type + " from " + start + " to " + due);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSlidingCountsMatchSeparateCounts() {
+        // Window straddling the end of the horizon
+        LocalDate firstCheckout = LocalDate.of(2025, 6, 1);
+        LocalDate lastCheckout = LocalDate.of(2026, 6, 1);
+        for (int rentalDays : new int[]{1, 4, 30}) {
+            for (Type type : Type.values()) {
+                int[] counts = index.countChargeDaysByCheckout(firstCheckout, lastCheckout, rentalDays, type);
+
+                assertEquals(366, counts.length);
+                for (int i = 0; i < counts.length; i++) {
+                    LocalDate checkout = firstCheckout.plusDays(i);
+                    assertEquals(ChargeDayCounter.countChargeDays(checkout.plusDays(1), checkout.plusDays(rentalDays), type),
+                            counts[i], type + " checked out " + checkout + " for " + rentalDays);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIndependenceDayWeek() {
+        // July 1-8, 2024: Mon, Tue, Wed, Thu(Holiday), Fri, Sat, Sun, Mon
+        LocalDate start = LocalDate.of(2024, 7, 1);
+        LocalDate due = LocalDate.of(2024, 7, 8);
+
+        assertEquals(7, index.countChargeDays(start, due, Type.Ladder));
+        assertEquals(6, index.countChargeDays(start, due, Type.Chainsaw));
+        assertEquals(5, index.countChargeDays(start, due, Type.Jackhammer));
+    }
+
+    @Test
+    void testDueDateBeforeStartDate() {
+        assertEquals(0, index.countChargeDays(LocalDate.of(2024, 7, 8), LocalDate.of(2024, 7, 1), Type.Ladder));
+    }
+}
@@ -0,0 +1,113 @@
+package com.qczhang18.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for HolidayCalendar
+ * Verifies bitset lookups and holiday counts inside and outside the cached year range
+ */
+class HolidayCalendarTest {
+
+    @Test
+    void testDefaultMatchesHolidayRules() {
+        for (LocalDate date = LocalDate.of(1895, 1, 1); date.getYear() < 2205; date = date.plusDays(1)) {
+            boolean expected = ChargingDateUtil.isIndependenceDay(date) || ChargingDateUtil.isLaborDay(date);
+            assertEquals(expected, HolidayCalendar.DEFAULT.isHoliday(date), date.toString());
+        }
+    }
+
+    @Test
+    void testCountMatchesDayByDayWalk() {
+        // Christmas is never shifted, so some years have a weekend holiday
+        HolidayCalendar calendar = new HolidayCalendar(
+                year -> List.of(LocalDate.of(year, Month.DECEMBER, 25), HolidayRule.LABOR_DAY.observedDate(year)),
+                2020, 2030);
+
+        LocalDate first = LocalDate.of(2015, 11, 1);
+        for (int offset = 0; offset < 365 * 20; offset += 37) {
+            LocalDate from = first.plusDays(offset);
+            for (int length : new int[]{1, 40, 400, 4000}) {
+                LocalDate to = from.plusDays(length - 1);
+                long holidays = 0;
+                long weekendHolidays = 0;
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    if (calendar.isHoliday(date)) {
+                        holidays++;
+                        if (ChargingDateUtil.isWeekend(date)) {
+                            weekendHolidays++;
+                        }
+                    }
+                }
+                assertEquals(holidays, calendar.countHolidays(from, to, false), from + " to " + to);
+                assertEquals(weekendHolidays, calendar.countHolidays(from, to, true), from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void testCycleMatchesYearByYearOutsideRange() {
+        // Christmas is never shifted, New Year's Day moves into December of the year before when on a Saturday
+        List<HolidayRule> rules = List.of(
+                new HolidayRule.FixedDate("Christmas Day", MonthDay.of(Month.DECEMBER, 25), HolidayRule.Observance.NONE),
+                new HolidayRule.FixedDate("New Year's Day", MonthDay.of(Month.JANUARY, 1), HolidayRule.Observance.NEAREST_WEEKDAY),
+                new HolidayRule.FixedDate("Leap Day", MonthDay.of(Month.FEBRUARY, 29), HolidayRule.Observance.NEXT_WEEKDAY),
+                new HolidayRule.LastWeekday("Memorial Day", Month.MAY, DayOfWeek.MONDAY),
+                new HolidayRule.OneOff("Millennium", LocalDate.of(1000, 1, 1)),
+                new HolidayRule.OneOff("Tricentennial", LocalDate.of(2376, 7, 4)),
+                new HolidayRule.OneOff("Tricentennial Christmas", LocalDate.of(2376, 12, 25)));
+        HolidayCalendar calendar = new HolidayCalendar(rules, 2020, 2030);
+        // Built from a function, so every year outside the range is counted one by one
+        HolidayCalendar yearByYear = new HolidayCalendar(year -> rules.stream()
+                .flatMap(rule -> IntStream.rangeClosed(year - 1, year + 1).mapToObj(rule::observedDate))
+                .filter(Objects::nonNull)
+                .toList(), 2020, 2030);
+
+        for (LocalDate date = LocalDate.of(2370, 1, 1); date.getYear() < 2380; date = date.plusDays(1)) {
+            assertEquals(yearByYear.isHoliday(date), calendar.isHoliday(date), date.toString());
+        }
+        LocalDate[] dates = {LocalDate.of(-1203, 5, 27), LocalDate.of(999, 12, 31), LocalDate.of(1000, 1, 2),
+                LocalDate.of(1899, 2, 28), LocalDate.of(2024, 7, 1), LocalDate.of(2376, 7, 4),
+                LocalDate.of(2399, 12, 31), LocalDate.of(2800, 3, 1), LocalDate.of(5123, 10, 9)};
+        for (LocalDate from : dates) {
+            for (LocalDate to : dates) {
+                assertEquals(yearByYear.countHolidays(from, to, false), calendar.countHolidays(from, to, false),
+                        from + " to " + to);
+                assertEquals(yearByYear.countHolidays(from, to, true), calendar.countHolidays(from, to, true),
+                        from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void testMultiMillionYearCount() {
+        LocalDate from = LocalDate.of(-4_000_000, 3, 1);
+        LocalDate to = LocalDate.of(4_000_000, 2, 28);
+
+        // Independence Day (observed) and Labor Day fall in every year, the period has 8 million full years
+        assertTimeout(Duration.ofSeconds(1),
+                () -> assertEquals(2L * 8_000_000, HolidayCalendar.DEFAULT.countHolidays(from, to, false)));
+    }
+
+    @Test
+    void testEmptyPeriod() {
+        assertEquals(0, HolidayCalendar.DEFAULT.countHolidays(
+                LocalDate.of(2024, 7, 5), LocalDate.of(2024, 7, 3), false));
+    }
+
+    @Test
+    void testInvalidYearRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayCalendar(year -> List.of(), 2030, 2020));
+    }
+}
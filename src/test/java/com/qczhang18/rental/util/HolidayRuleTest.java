@@ -0,0 +1,84 @@
+package com.qczhang18.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for HolidayRule
+ * Verifies each kind of rule and the calendars compiled from them
+ */
+class HolidayRuleTest {
+
+    @Test
+    void testFixedDateObservance() {
+        MonthDay july4th = MonthDay.of(Month.JULY, 4);
+        HolidayRule none = new HolidayRule.FixedDate("Independence Day", july4th, HolidayRule.Observance.NONE);
+        HolidayRule nearest = new HolidayRule.FixedDate("Independence Day", july4th, HolidayRule.Observance.NEAREST_WEEKDAY);
+        HolidayRule next = new HolidayRule.FixedDate("Independence Day", july4th, HolidayRule.Observance.NEXT_WEEKDAY);
+
+        // Thursday, Saturday and Sunday
+        assertEquals(LocalDate.of(2024, 7, 4), nearest.observedDate(2024));
+        assertEquals(LocalDate.of(2020, 7, 4), none.observedDate(2020));
+        assertEquals(LocalDate.of(2020, 7, 3), nearest.observedDate(2020));
+        assertEquals(LocalDate.of(2020, 7, 6), next.observedDate(2020));
+        assertEquals(LocalDate.of(2021, 7, 5), nearest.observedDate(2021));
+        assertEquals(LocalDate.of(2021, 7, 5), next.observedDate(2021));
+    }
+
+    @Test
+    void testLeapDayOnlyInLeapYears() {
+        HolidayRule leapDay = new HolidayRule.FixedDate("Leap Day", MonthDay.of(Month.FEBRUARY, 29), HolidayRule.Observance.NONE);
+
+        assertEquals(LocalDate.of(2024, 2, 29), leapDay.observedDate(2024));
+        assertNull(leapDay.observedDate(2023));
+    }
+
+    @Test
+    void testNthAndLastWeekday() {
+        assertEquals(LocalDate.of(2024, 9, 2),
+                new HolidayRule.NthWeekday("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1).observedDate(2024));
+        assertEquals(LocalDate.of(2024, 11, 28),
+                new HolidayRule.NthWeekday("Thanksgiving", Month.NOVEMBER, DayOfWeek.THURSDAY, 4).observedDate(2024));
+        assertEquals(LocalDate.of(2024, 5, 27),
+                new HolidayRule.LastWeekday("Memorial Day", Month.MAY, DayOfWeek.MONDAY).observedDate(2024));
+        // February 2023 has four Mondays
+        assertNull(new HolidayRule.NthWeekday("Fifth Monday", Month.FEBRUARY, DayOfWeek.MONDAY, 5).observedDate(2023));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HolidayRule.NthWeekday("Sixth Monday", Month.MAY, DayOfWeek.MONDAY, 6));
+    }
+
+    @Test
+    void testOneOff() {
+        HolidayRule oneOff = new HolidayRule.OneOff("Day of Mourning", LocalDate.of(2025, 1, 9));
+
+        assertEquals(LocalDate.of(2025, 1, 9), oneOff.observedDate(2025));
+        assertNull(oneOff.observedDate(2024));
+    }
+
+    @Test
+    void testObservanceAcrossNewYear() {
+        // January 1st 2022 is a Saturday, observed on Friday December 31st 2021
+        HolidayCalendar calendar = new HolidayCalendar(List.of(
+                new HolidayRule.FixedDate("New Year's Day", MonthDay.of(Month.JANUARY, 1), HolidayRule.Observance.NEAREST_WEEKDAY)),
+                2020, 2025);
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 31)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2022, 1, 1)));
+        assertEquals("New Year's Day", calendar.holidayName(LocalDate.of(2021, 12, 31)));
+        assertEquals(2, calendar.countHolidays(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), false));
+    }
+
+    @Test
+    void testHolidayNames() {
+        assertEquals("Independence Day", HolidayCalendar.DEFAULT.holidayName(LocalDate.of(2020, 7, 3)));
+        assertEquals("Labor Day", HolidayCalendar.DEFAULT.holidayName(LocalDate.of(2020, 9, 7)));
+        assertNull(HolidayCalendar.DEFAULT.holidayName(LocalDate.of(2020, 7, 4)));
+    }
+}
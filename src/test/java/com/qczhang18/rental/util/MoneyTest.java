@@ -0,0 +1,59 @@
+package com.qczhang18.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for Money
+ * Verifies long cents arithmetic matches the BigDecimal pricing it replaces
+ */
+class MoneyTest {
+
+    @Test
+    void testMatchesBigDecimalPricing() {
+        for (String dailyCharge : new String[]{"1.99", "1.49", "2.99", "0.01", "12.50"}) {
+            BigDecimal daily = new BigDecimal(dailyCharge);
+            long dailyCents = Money.toCents(daily);
+            for (int days = 0; days <= 400; days++) {
+                for (int percent = 0; percent <= 100; percent++) {
+                    BigDecimal charge = daily.multiply(BigDecimal.valueOf(days));
+                    BigDecimal discount = charge.multiply(BigDecimal.valueOf(percent))
+                            .divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP);
+
+                    long chargeCents = Money.multiply(dailyCents, days);
+                    long discountCents = Money.percentage(chargeCents, percent);
+
+                    assertEquals(charge, Money.toBigDecimal(chargeCents));
+                    assertEquals(discount, Money.toBigDecimal(discountCents));
+                    assertEquals(charge.subtract(discount), Money.toBigDecimal(chargeCents - discountCents));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPercentageRoundsHalfUp() {
+        // 0.25 * 50% = 0.125 -> 0.13, -0.25 * 50% = -0.125 -> -0.13
+        assertEquals(13, Money.percentage(25, 50));
+        assertEquals(-13, Money.percentage(-25, 50));
+        // 0.29 * 10% = 0.029 -> 0.03, 0.24 * 10% = 0.024 -> 0.02
+        assertEquals(3, Money.percentage(29, 10));
+        assertEquals(2, Money.percentage(24, 10));
+    }
+
+    @Test
+    void testToCents() {
+        assertEquals(199, Money.toCents(new BigDecimal("1.99")));
+        assertEquals(200, Money.toCents(new BigDecimal("2")));
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("1.995")));
+    }
+
+    @Test
+    void testOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+}
@@ -0,0 +1,69 @@
+package com.qczhang18.rental.warmup;
+
+import com.qczhang18.rental.util.HolidayCalendars;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for WarmupRunner
+ * Verifies the warm-up checks out through the recording path, reports its rounds and holds readiness while it runs
+ */
+class WarmupRunnerTest {
+
+    private final List<Object> events = new ArrayList<>();
+
+    private WarmupRunner runner(boolean enabled, Duration maxDuration) {
+        return new WarmupRunner(new HolidayCalendars(), JsonMapper.builder().build(), events::add,
+                enabled, maxDuration, 200, 0.05);
+    }
+
+    @Test
+    void testWarmUpReport() {
+        WarmupReport report = runner(true, Duration.ofSeconds(5)).warmUp();
+
+        assertTrue(report.getRounds() >= 1);
+        assertEquals((long) (report.getRounds() + 1) * 200, report.getRequests());
+        // Invalid discounts and booked out tools are refused, everything else is journaled
+        assertTrue(report.getCheckouts() > 0);
+        assertTrue(report.getCheckouts() < report.getRequests());
+        assertTrue(report.getP50Nanos() <= report.getP99Nanos());
+        assertTrue(report.getP99Nanos() <= report.getMaxNanos());
+    }
+
+    @Test
+    void testWarmUpStopsAtTimeLimit() {
+        WarmupReport report = runner(true, Duration.ZERO).warmUp();
+
+        assertFalse(report.isConverged());
+        assertEquals(0, report.getRounds());
+        assertEquals(200, report.getRequests());
+    }
+
+    @Test
+    void testRunRefusesTrafficWhileWarmingUp() {
+        WarmupRunner runner = runner(true, Duration.ofMillis(100));
+        runner.run(new DefaultApplicationArguments());
+
+        assertEquals(1, events.size());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+        assertNotNull(runner.getReport());
+    }
+
+    @Test
+    void testDisabled() {
+        WarmupRunner runner = runner(false, Duration.ofSeconds(5));
+        runner.run(new DefaultApplicationArguments());
+
+        assertTrue(events.isEmpty());
+        assertNull(runner.getReport());
+    }
+}